@@ -17,22 +17,29 @@ public class Board extends ContextWrapper {
 
     private GameStateListener gameStateListener;
 
-    private long elapsedTime;
-    private Timer incrementTimer;
+    private Simulation simulation;
     private boolean running;
 
-    private Tile[][] tiles;
-    private ArrayList<Robot> robots;
-    private ArrayList<MovableBox> movableBoxes;
-    private ArrayList<MovableBoxTile> movableBoxTiles;
-    private ArrayList<Particle> particles;
+    // Frame time the simulation has been advanced to, and the time left over that is not yet a whole tick
+    private boolean clockStarted;
+    private long lastFrameTime;
+    private long tickAccumulator;
+
+    // Time in milliseconds between the last tick and the latest frame, which the render thread draws movables ahead by
+    private volatile float subTickTime;
+
+    // Hands the state of the simulation to the render thread, and guards the bitmaps the render thread draws with
+    private final RenderSnapshotBuffer renderSnapshots;
+    private final Object renderLock;
+
+    // Copy of the last snapshot drawn, which the next snapshot is compared against to find what needs to be redrawn
+    private final RenderSnapshot drawnFrame;
+    private float drawnSubTickTime;
+    private boolean fullRedraw;
 
-    private boolean canWarpBackInTime;
-    private boolean won;
     private boolean snapshot;
 
-    private Matrix rotateMatrix;
-    private Map<String, Bitmap> bitmapArray;
+    private SpriteAtlas spriteAtlas;
     private Bitmap bitmapBoardFloor;
     private Bitmap bitmapBoardWalls;
     private NinePatchDrawable bitmapLevelTimeline;
@@ -42,19 +49,22 @@ public class Board extends ContextWrapper {
     private int tileNumberY;
 
     private int drawTileSize;
+    private int drawWidth;
+    private int drawHeight;
     private Rect boundsBoard;
     private Rect boundsLevelTimeline;
+    private Rect boundsTimelineDirty;
 
     public Board(Context context) {
         super(context);
 
-        // Initialize arrays for the board
-        robots = new ArrayList<Robot>();
-        movableBoxes = new ArrayList<MovableBox>();
-        movableBoxTiles = new ArrayList<MovableBoxTile>();
-        particles = new ArrayList<Particle>();
+        simulation = new Simulation();
 
-        rotateMatrix = new Matrix();
+        renderSnapshots = new RenderSnapshotBuffer();
+        renderLock = new Object();
+
+        drawnFrame = new RenderSnapshot();
+        fullRedraw = true;
     }
 
     public synchronized void setGameStateListener(GameStateListener gameStateListener) {
@@ -70,173 +80,104 @@ public class Board extends ContextWrapper {
     public synchronized void setLevel(Level level, boolean snapshot) {
         this.level = level;
         this.snapshot = snapshot;
-        this.tileNumberX = getTileNumberX(level.getLevelString());
-        this.tileNumberY = getTileNumberY(level.getLevelString());
-
-        // Initializes the tile array
-        tiles = new Tile[tileNumberY][tileNumberX];
-
-        // Initializes the board to be either floor or wall
-        for (int i = 0; i < tileNumberY; i++) {
-            for (int j = 0; j < tileNumberX; j++) {
-                char tile = level.getLevelString().charAt((i * (tileNumberX + 1)) + j);
-                if (Character.isUpperCase(tile)) {
-                    tiles[i][j] = new Tile(Tile.TILE_MOVABLE_BOX);
-                } else {
-                    tiles[i][j] = new Tile((tile == WALL_CODE) ? Tile.TILE_WALL : Tile.TILE_FLOOR);
-                }
-            }
-        }
-
-        // Gives each tile the direction-based id for drawing purposes
-        for (int i = 0; i < tileNumberY; i++) {
-            for (int j = 0; j < tileNumberX; j++) {
-                if (tiles[i][j].getID().equals(Tile.TILE_MOVABLE_BOX)) {
-
-                    tiles[i][j].setDisplay(Tile.TILE_FLOOR + Tile.ALONE_LABEL);
 
-                } else if (tiles[i][j].getID().equals(Tile.TILE_FLOOR) || tiles[i][j].getID().equals(Tile.TILE_WALL)) {
-                    boolean sameUp = false;
-                    if (i > 0) {
-                        sameUp = tiles[i - 1][j].getID().equals(tiles[i][j].getID());
-                    }
+        simulation.setLevel(level.getLevelString());
+        this.tileNumberX = simulation.getTileNumberX();
+        this.tileNumberY = simulation.getTileNumberY();
 
-                    boolean sameRight = false;
-                    if (j < tileNumberX - 1) {
-                        sameRight = tiles[i][j + 1].getID().equals(tiles[i][j].getID());
-                    }
+        running = true;
 
-                    boolean sameDown = false;
-                    if (i < tileNumberY - 1) {
-                        sameDown = tiles[i + 1][j].getID().equals(tiles[i][j].getID());
-                    }
+        publishSnapshot();
+    }
 
-                    boolean sameLeft = false;
-                    if (j > 0) {
-                        sameLeft = tiles[i][j - 1].getID().equals(tiles[i][j].getID());
-                    }
+    /**
+     * Resets the board to its default state. Only touches the parts of the board that can move (robots, etc.)
+     */
+    public synchronized void reset() {
+        simulation.reset();
 
-                    // Each number in the switch represents the number of similar tiles around the current tile
-                    switch ((sameUp ? 1 : 0) + (sameRight ? 1 : 0) + (sameDown ? 1 : 0) + (sameLeft ? 1 : 0)) {
-                        // No surrounding like tiles
-                        case 0:
-                            tiles[i][j].setDisplay(tiles[i][j].getID() + Tile.ALONE_LABEL);
-                            break;
-
-                        // One surrounding like tile
-                        case 1:
-                            tiles[i][j].setDisplay(tiles[i][j].getID() + Tile.ENDPOINT_LABEL + (sameUp ? Tile.UP : "") + (sameRight ? Tile.RIGHT : "") + (sameDown ? Tile.DOWN : "") + (sameLeft ? Tile.LEFT : ""));
-                            break;
-
-                        // Two surrounding like tiles. These could be either on opposite sides, in both directions, or in an L-shape
-                        case 2:
-                            if (sameUp && sameDown && !sameRight && !sameLeft) {
-                                tiles[i][j].setDisplay(tiles[i][j].getID() + Tile.MIDDLE_LABEL + Tile.UP_DOWN);
-                            } else if (!sameUp && !sameDown && sameRight && sameLeft) {
-                                tiles[i][j].setDisplay(tiles[i][j].getID() + Tile.MIDDLE_LABEL + Tile.LEFT_RIGHT);
-                            } else {
-                                tiles[i][j].setDisplay(tiles[i][j].getID() + Tile.CORNER_LABEL + (sameUp && sameRight ? Tile.UP : "") + (sameRight && sameDown ? Tile.RIGHT : "") + (sameDown && sameLeft ? Tile.DOWN : "") + (sameLeft && sameUp ? Tile.LEFT : ""));
-                            }
-                            break;
+        running = true;
 
-                        // Three surrounding like tiles. They form a T-shape
-                        case 3:
-                            tiles[i][j].setDisplay(tiles[i][j].getID() + Tile.T_LABEL + (!sameUp ? Tile.UP : "") + (!sameRight ? Tile.RIGHT : "") + (!sameDown ? Tile.DOWN : "") + (!sameLeft ? Tile.LEFT : ""));
-                            break;
+        publishSnapshot();
 
-                        // Four surrounding like tiles
-                        case 4:
-                            tiles[i][j].setDisplay(tiles[i][j].getID() + Tile.CROSS_LABEL);
-                            break;
-                    }
-                }
-            }
-        }
-
-        reset();
+        //stopClock();
     }
 
     /**
-     * Resets the board to its default state. Only touches the parts of the board that can move (robots, etc.)
+     * Starts the clock that drives the simulation. The next frame only starts counting time, so time spent stopped is never caught up on
      */
-    public synchronized void reset() {
-
-        // Clears the arrays
-        robots.clear();
-        movableBoxes.clear();
-        movableBoxTiles.clear();
-        particles.clear();
+    public synchronized void startClock() {
+        clockStarted = true;
+        lastFrameTime = 0;
+        tickAccumulator = 0;
+    }
 
-        // Parses the level to initialize each special object
-        for (int i = 0; i < tileNumberY; i++) {
-            for (int j = 0; j < tileNumberX; j++) {
-                char tile = level.getLevelString().charAt((i * (tileNumberX + 1)) + j);
+    /**
+     * Stops the clock that drives the simulation, so that frames no longer advance it
+     */
+    public synchronized void stopClock() {
+        clockStarted = false;
+    }
 
-                if (BOX_CODES.contains(String.valueOf(Character.toLowerCase(tile)))) {
-                    if (Character.isUpperCase(tile)) {
-                        movableBoxTiles.add(new MovableBoxTile(j, i, MovableBox.MOVABLE_BOX_COLORS.values()[BOX_CODES.indexOf(Character.toLowerCase(tile))].getID()));
-                    } else {
-                        movableBoxes.add(new MovableBox(j, i, 0, MovableBox.MOVABLE_BOX_COLORS.values()[BOX_CODES.indexOf(Character.toLowerCase(tile))].getID()));
-                    }
-                } else if (ROBOT_CODES.contains(String.valueOf(tile))) {
-                    robots.add(new Robot(j, i, ROBOT_CODES.indexOf(String.valueOf(tile)), true));
-                }
+    /**
+     * Advances the simulation to the time of a frame in whole ticks, keeping the time left over for the next frame. A long gap between frames is capped, so the game slows down for a moment instead of running a burst of ticks to catch up
+     *
+     * @param frameTimeNanos time of the frame, in the System.nanoTime() time base
+     */
+    public void update(long frameTimeNanos) {
+        long waitStart = System.nanoTime();
+        synchronized (this) {
+            // Records how long the game loop waited on the other threads that use the board
+            long tickStart = System.nanoTime();
+            LatencyStats.LOCK_WAIT.record(tickStart - waitStart);
+
+            if (!clockStarted || !running || !simulation.hasStarted() || lastFrameTime == 0) {
+                // Time spent stopped or paused is dropped rather than caught up on
+                lastFrameTime = frameTimeNanos;
+                tickAccumulator = 0;
+                subTickTime = 0;
+                return;
             }
-        }
 
-        // Resets flag variables
-        canWarpBackInTime = true;
-        won = false;
-        running = true;
-        elapsedTime = 0;
+            tickAccumulator += Math.min(frameTimeNanos - lastFrameTime, MAX_TICKS_PER_FRAME * TICK_NANOS);
+            lastFrameTime = frameTimeNanos;
 
-        //stopTimer();
-    }
+            boolean wasWon = simulation.haveWon();
+            boolean updated = false;
+            boolean ticked = false;
 
-    public synchronized void startTimer() {
-        // Runs an increment timer every period of time to update the board and robots
-        incrementTimer = new Timer("IncrementTimer", false);
-        incrementTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                synchronized (Board.this) {
-                    if (robots.get(0).getLastMoveCommand() != null && running) {
+            // Update the board in fixed ticks. Ticks where nothing is due and nothing is animating are skipped
+            while (tickAccumulator >= TICK_NANOS) {
+                tickAccumulator -= TICK_NANOS;
+                updated |= simulation.tick();
+                ticked = true;
+            }
+            subTickTime = tickAccumulator / 1000000f;
 
-                        elapsedTime += DELAY_PERIOD;
+            LatencyStats.TICK.record(System.nanoTime() - tickStart);
 
-                        if (!won) {
-                            // Update the board with the elapsed time
-                            update();
+            // Even idle ticks move the clock and the timeline cursor, so the snapshot is published once per frame whenever time passed
+            if (ticked) {
+                publishSnapshot();
+            }
 
-                            // If the game is won, save the score
-                            if (won) {
-                                level.updateScore(new Score(level.getID(), true, getTotalElapsedTime(), robots.size()));
+            if (updated) {
+                // If the game was just won, queue the score to be saved in the background
+                if (simulation.haveWon() && !wasWon) {
+                    level.updateScore(new Score(level.getID(), true, simulation.getTotalElapsedTime(), simulation.getRobots().size()));
 
-                                LevelDatabaseHelper levelHelper = new LevelDatabaseHelper(getApplicationContext());
-                                levelHelper.updateScore(level);
-                                levelHelper.close();
-                            }
-                        } else {
-                            // Finish the winning move and end the timer
-                            update();
-                        }
+                    LevelDatabaseHelper levelHelper = new LevelDatabaseHelper(getApplicationContext());
+                    levelHelper.updateScore(level);
+                }
 
-                        if (gameStateListener != null) {
-                            if (won && !getCurrentRobot().isAnimating()) {
-                                gameStateListener.gameEnd();
-                            } else {
-                                gameStateListener.gameUpdate();
-                            }
-                        }
+                if (gameStateListener != null) {
+                    if (simulation.haveWon() && !simulation.getCurrentRobot().isAnimating(simulation.getElapsedTime())) {
+                        gameStateListener.gameEnd();
+                    } else {
+                        gameStateListener.gameUpdate();
                     }
                 }
             }
-        }, DELAY_PERIOD, DELAY_PERIOD);
-    }
-
-    public synchronized void stopTimer() {
-        if (incrementTimer != null) {
-            incrementTimer.cancel();
         }
     }
 
@@ -244,17 +185,9 @@ public class Board extends ContextWrapper {
      * Called whenever the reset time button is pressed. Resets the game to the initial state, but each robots will redo its moves
      */
     public synchronized void resetTime() {
-        addMoveCommandToCurrent(Movable.MOVE_BACK_IN_TIME);
+        simulation.applyCommand(Movable.MOVE_BACK_IN_TIME);
 
-        robots.add(new Robot(getCurrentRobot().getX(), getCurrentRobot().getY(), getCurrentRobot().getDirection(), true));
-
-        for (Movable movable : getMovables()) {
-            movable.reset();
-        }
-
-        particles.clear();
-
-        elapsedTime = 0;
+        publishSnapshot();
     }
 
     /**
@@ -263,190 +196,272 @@ public class Board extends ContextWrapper {
      * @param direction direction of the swipe
      */
     public synchronized void addMoveCommandToCurrent(int direction) {
-        getCurrentRobot().addMoveCommand(new MoveCommand(direction, elapsedTime));
+        simulation.applyCommand(direction);
+
+        publishSnapshot();
     }
 
     /**
-     * Forms most of the game loop. Each time it is called, every robot updates its command list, particles advance in their state, and test flags are updated
+     * Seeks the board to the time under the given position on the level timeline
+     *
+     * @param x x position on the screen
      */
-    public synchronized void update() {
-        if (!won) {
-            // Update robots
-            for (Robot robot : robots) {
-                MoveCommand moveCommand = robot.updateCommands(elapsedTime);
+    public synchronized void seekTimeline(float x) {
+        float percent = Math.max(0, Math.min(1, (x - boundsLevelTimeline.left) / boundsLevelTimeline.width()));
 
-                if (moveCommand != null) {
-                    robot.move(moveCommand.getDirection(), tiles, getMovables(), elapsedTime, true);
+        simulation.seek((long) (percent * getTimelineLength()));
 
-                    if (moveCommand.getDirection() == Movable.MOVE_BACK_IN_TIME) {
-                        particles.add(new Particle(robot.getX(), robot.getY(), elapsedTime));
-                    }
-                }
+        publishSnapshot();
+    }
+
+    /**
+     * @param x x position on the screen
+     * @param y y position on the screen
+     * @return if the position is on the level timeline
+     */
+    public synchronized boolean isOnTimeline(float x, float y) {
+        return !snapshot && boundsLevelTimeline != null && boundsLevelTimeline.contains((int) x, (int) y);
+    }
+
+    /**
+     * @return the time at the end of the level timeline, which covers the current run and every time a robot went back in time
+     */
+    private synchronized long getTimelineLength() {
+        long maxElapsedTime = simulation.getFurthestTime();
+
+        for (Robot robot : simulation.getRobots()) {
+            if (robot.getLastMoveDirection() == Movable.MOVE_BACK_IN_TIME && robot.getLastMoveTime() > maxElapsedTime) {
+                maxElapsedTime = robot.getLastMoveTime();
             }
         }
 
-        // Update reset time flag and animations
-        boolean canWarpFlag = true;
+        return maxElapsedTime;
+    }
+
+    /**
+     * Publishes the current state of the simulation for the render thread to draw
+     */
+    private synchronized void publishSnapshot() {
+        renderSnapshots.publish(simulation, getTimelineLength());
+    }
 
-        for (Movable movable : getMovables()) {
-            if (movable.getInitX() == getCurrentRobot().getX() && movable.getInitY() == getCurrentRobot().getY()) {
-                canWarpFlag = false;
+    /**
+     * Takes the latest published state of the board to be drawn by drawBoard, interpolates it to the time of the latest frame, and finds the part of the screen that changed since the last frame that was drawn
+     *
+     * @param dirty set to the rectangle of the screen that needs to be redrawn
+     * @return if anything needs to be redrawn
+     */
+    public boolean prepareFrame(Rect dirty) {
+        synchronized (renderLock) {
+            RenderSnapshot frame = renderSnapshots.acquire();
+            float frameSubTickTime = subTickTime;
+            frame.interpolate(frameSubTickTime);
+
+            // Redraws everything after the bitmaps change, and keeps redrawing the loading screen until there are bitmaps
+            if (fullRedraw || spriteAtlas == null) {
+                dirty.set(0, 0, drawWidth, drawHeight);
+                fullRedraw = spriteAtlas == null;
+                drawnFrame.copyFrom(frame);
+                drawnSubTickTime = frameSubTickTime;
+                return true;
             }
 
-            if (movable.isAnimating()) {
-                movable.update(elapsedTime);
+            if (frame.getSequence() == drawnFrame.getSequence() && frameSubTickTime == drawnSubTickTime) {
+                return false;
             }
-        }
 
-        canWarpBackInTime = canWarpFlag;
+            dirty.setEmpty();
 
-        // Update particles
-        for (final Iterator<Particle> particle = particles.iterator(); particle.hasNext(); ) {
-            if (particle.next().update(elapsedTime)) {
-                particle.remove();
-            }
-        }
+            if (frame.getRobotCount() != drawnFrame.getRobotCount() || frame.getBoxCount() != drawnFrame.getBoxCount() || frame.getBoxTileCount() != drawnFrame.getBoxTileCount()) {
+                dirty.set(0, 0, drawWidth, drawHeight);
+            } else {
+                boolean timelineChanged = frame.getElapsedTime() != drawnFrame.getElapsedTime() || frame.getTimelineLength() != drawnFrame.getTimelineLength();
 
-        // Check win conditions
-        if (!won) {
-            boolean testWin = true;
-            for (MovableBoxTile tile : movableBoxTiles) {
-                boolean tileHasBox = false;
-                for (MovableBox movableBox : movableBoxes) {
-                    if (movableBox.getColor().equals(tile.getColor()) && movableBox.getX() == tile.getX() && movableBox.getY() == tile.getY()) {
-                        tileHasBox = true;
+                // Robots that moved, turned, appeared, disappeared or stopped being the current robot are redrawn in both places
+                for (int r = 0; r < frame.getRobotCount(); r++) {
+                    if (frame.getRobotViewX(r) != drawnFrame.getRobotViewX(r) || frame.getRobotViewY(r) != drawnFrame.getRobotViewY(r)
+                            || frame.getRobotViewDirection(r) != drawnFrame.getRobotViewDirection(r) || frame.isRobotVisible(r) != drawnFrame.isRobotVisible(r)
+                            || (r == frame.getCurrentRobot()) != (r == drawnFrame.getCurrentRobot())) {
+                        unionMovable(dirty, frame.isRobotVisible(r), frame.getRobotViewX(r), frame.getRobotViewY(r));
+                        unionMovable(dirty, drawnFrame.isRobotVisible(r), drawnFrame.getRobotViewX(r), drawnFrame.getRobotViewY(r));
                     }
+
+                    timelineChanged |= frame.getRobotRewindTime(r) != drawnFrame.getRobotRewindTime(r);
                 }
-                if (!tileHasBox) {
-                    testWin = false;
-                    break;
+
+                for (int b = 0; b < frame.getBoxCount(); b++) {
+                    if (frame.getBoxViewX(b) != drawnFrame.getBoxViewX(b) || frame.getBoxViewY(b) != drawnFrame.getBoxViewY(b) || frame.isBoxVisible(b) != drawnFrame.isBoxVisible(b)) {
+                        unionMovable(dirty, frame.isBoxVisible(b), frame.getBoxViewX(b), frame.getBoxViewY(b));
+                        unionMovable(dirty, drawnFrame.isBoxVisible(b), drawnFrame.getBoxViewX(b), drawnFrame.getBoxViewY(b));
+                    }
+                }
+
+                for (int i = 0; i < frame.getBoxTileCount(); i++) {
+                    if (frame.isBoxTileActivated(i) != drawnFrame.isBoxTileActivated(i)) {
+                        unionTile(dirty, frame.getBoxTileX(i), frame.getBoxTileY(i));
+                    }
                 }
-            }
 
-            won = testWin;
-            if (won) {
-                canWarpBackInTime = false;
+                // Particles fade every frame, so every old and new particle is redrawn
+                for (int i = 0; i < frame.getParticleCount(); i++) {
+                    unionTile(dirty, frame.getParticleX(i), frame.getParticleY(i));
+                }
+                for (int i = 0; i < drawnFrame.getParticleCount(); i++) {
+                    unionTile(dirty, drawnFrame.getParticleX(i), drawnFrame.getParticleY(i));
+                }
+
+                if (!snapshot && timelineChanged) {
+                    dirty.union(boundsTimelineDirty);
+                }
             }
+
+            drawnFrame.copyFrom(frame);
+            drawnSubTickTime = frameSubTickTime;
+            return !dirty.isEmpty();
         }
     }
 
     /**
-     * Draws the current state of the board to the passed canvas using the given paint
+     * Adds the screen area of a robot or box, including every layer of the fake 3D effect, to the dirty rectangle
+     */
+    private void unionMovable(Rect dirty, boolean visible, float viewX, float viewY) {
+        if (visible) {
+            float left = boundsBoard.left + viewX * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER;
+            float top = boundsBoard.top + viewY * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER;
+
+            dirty.union((int) Math.floor(left - (ROBOT_LAYERS - 1) * THREE_DIMENSIONAL_X_MULTIPLIER), (int) Math.floor(top - (ROBOT_LAYERS - 1) * THREE_DIMENSIONAL_Y_MULTIPLIER),
+                    (int) Math.ceil(left + drawTileSize), (int) Math.ceil(top + drawTileSize));
+        }
+    }
+
+    /**
+     * Adds the screen area of a flat tile sized sprite to the dirty rectangle
+     */
+    private void unionTile(Rect dirty, int x, int y) {
+        float left = boundsBoard.left + x * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER;
+        float top = boundsBoard.top + y * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER;
+
+        dirty.union((int) Math.floor(left), (int) Math.floor(top), (int) Math.ceil(left + drawTileSize), (int) Math.ceil(top + drawTileSize));
+    }
+
+    /**
+     * Draws the state of the board taken by the last call to prepareFrame to the passed canvas using the given paint. This only reads the render snapshot, so drawing never waits for the simulation
      *
      * @param canvas passed canvas to draw to
      * @param paint  paint to use to draw
      */
-    public synchronized void drawBoard(Canvas canvas, Paint paint) {
+    public void drawBoard(Canvas canvas, Paint paint) {
+        synchronized (renderLock) {
+            try {
+                RenderSnapshot frame = renderSnapshots.getFront();
+
+                long elapsedTime = frame.getElapsedTime();
+                long maxElapsedTime = frame.getTimelineLength();
 
-        try {
-            long maxElapsedTime = elapsedTime;
+                paint.setColor(getResources().getColor(R.color.text_active));
+                paint.setTextSize(getResources().getDimension(R.dimen.rewind_text_size));
 
-            paint.setColor(getResources().getColor(R.color.text_active));
-            paint.setTextSize(getResources().getDimension(R.dimen.rewind_text_size));
+                if (!snapshot) {
+                    bitmapLevelTimeline.draw(canvas);
 
-            if (!snapshot) {
-                bitmapLevelTimeline.draw(canvas);
-                for (Robot robot : robots) {
-                    if (robot.getLastMoveCommand() != null && robot.getLastMoveCommand().getDirection() == Movable.MOVE_BACK_IN_TIME && robot.getLastMoveCommand().getExecuteTime() > maxElapsedTime) {
-                        maxElapsedTime = robot.getLastMoveCommand().getExecuteTime();
+                    if (maxElapsedTime > 0) {
+                        spriteAtlas.draw(canvas, SpriteAtlas.REWIND_ICON_CURRENT,
+                                (int) (boundsLevelTimeline.left + 1.0 * elapsedTime / maxElapsedTime * boundsLevelTimeline.width() - spriteAtlas.getWidth(SpriteAtlas.REWIND_ICON) / 2),
+                                boundsLevelTimeline.exactCenterY() - spriteAtlas.getHeight(SpriteAtlas.REWIND_ICON_CURRENT) / 2,
+                                paint);
+
+                        canvas.drawText(Score.getTimeMinSec(elapsedTime),
+                                (int) (boundsLevelTimeline.left + 1.0 * elapsedTime / maxElapsedTime * boundsLevelTimeline.width() - paint.measureText(Score.getTimeMinSec(elapsedTime)) / 2),
+                                boundsLevelTimeline.bottom,
+                                paint);
                     }
                 }
 
-                if (maxElapsedTime > 0) {
-                    canvas.drawBitmap(bitmapArray.get(REWIND_ICON + CURRENT),
-                            (int) (boundsLevelTimeline.left + 1.0 * elapsedTime / maxElapsedTime * boundsLevelTimeline.width() - bitmapArray.get(REWIND_ICON).getWidth() / 2),
-                            boundsLevelTimeline.exactCenterY() - bitmapArray.get(REWIND_ICON + CURRENT).getHeight() / 2,
-                            paint);
+                // Draw pre-rendered floor
+                canvas.drawBitmap(bitmapBoardFloor, boundsBoard.left, boundsBoard.top, paint);
 
-                    canvas.drawText(Score.getTimeMinSec(elapsedTime),
-                            (int) (boundsLevelTimeline.left + 1.0 * elapsedTime / maxElapsedTime * boundsLevelTimeline.width() - paint.measureText(Score.getTimeMinSec(elapsedTime)) / 2),
-                            boundsLevelTimeline.bottom,
+                // Draw movable box tiles
+                for (int i = 0; i < frame.getBoxTileCount(); i++) {
+                    spriteAtlas.draw(canvas, SpriteAtlas.getBoxTileSprite(frame.isBoxTileActivated(i), frame.getBoxTileColor(i)),
+                            boundsBoard.left + frame.getBoxTileX(i) * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
+                            boundsBoard.top + frame.getBoxTileY(i) * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
                             paint);
                 }
-            }
 
-            // Draw pre-rendered floor
-            canvas.drawBitmap(bitmapBoardFloor, boundsBoard.left, boundsBoard.top, paint);
+                // Draw robots
+                for (int r = 0; r < frame.getRobotCount(); r++) {
+                    if (frame.isRobotVisible(r)) {
+                        boolean current = r == frame.getCurrentRobot();
+                        float viewDirection = frame.getRobotViewDirection(r);
+                        int cardinalDirection = (int) viewDirection;
+
+                        if (!snapshot && cardinalDirection == viewDirection) {
+                            // A robot that is not turning is drawn with all of its layers in one pre-rendered sprite
+                            spriteAtlas.draw(canvas, SpriteAtlas.getExtrudedRobotSprite(current, (cardinalDirection % 4 + 4) % 4),
+                                    boundsBoard.left + frame.getRobotViewX(r) * drawTileSize - (ROBOT_LAYERS - 1) * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
+                                    boundsBoard.top + frame.getRobotViewY(r) * drawTileSize - (ROBOT_LAYERS - 1) * THREE_DIMENSIONAL_Y_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
+                                    paint);
+                        } else {
+                            // Turning robots, and the flat robots in snapshots, are rotated one layer at a time
+                            for (int i = 0; i < (snapshot ? 1 : ROBOT_LAYERS); i++) {
+                                spriteAtlas.drawRotated(canvas, current ? SpriteAtlas.ROBOT_CURRENT : SpriteAtlas.ROBOT,
+                                        boundsBoard.left + frame.getRobotViewX(r) * drawTileSize - i * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
+                                        boundsBoard.top + frame.getRobotViewY(r) * drawTileSize - i * THREE_DIMENSIONAL_Y_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
+                                        viewDirection * 90,
+                                        paint);
+                            }
+                        }
+                    }
 
-            // Draw movable box tiles
-            for (MovableBoxTile tile : movableBoxTiles) {
-                for (MovableBox movableBox : movableBoxes) {
-                    if (movableBox.getColor().equals(tile.getColor()) && movableBox.getX() == tile.getX() && movableBox.getY() == tile.getY()) {
-                        canvas.drawBitmap(bitmapArray.get(TILE_MOVABLE_BOX_ACTIVATED + movableBox.getColor()),
-                                boundsBoard.left + tile.getX() * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
-                                boundsBoard.top + tile.getY() * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
+                    long rewindTime = frame.getRobotRewindTime(r);
+                    if (!snapshot && rewindTime != RenderSnapshot.NO_REWIND) {
+                        spriteAtlas.draw(canvas, SpriteAtlas.REWIND_ICON,
+                                (int) (boundsLevelTimeline.left + 1.0 * rewindTime / maxElapsedTime * boundsLevelTimeline.width() - spriteAtlas.getWidth(SpriteAtlas.REWIND_ICON) / 2),
+                                boundsLevelTimeline.exactCenterY() - spriteAtlas.getHeight(SpriteAtlas.REWIND_ICON) / 2,
                                 paint);
-                    } else {
-                        canvas.drawBitmap(bitmapArray.get(TILE_MOVABLE_BOX_DEACTIVATED + movableBox.getColor()),
-                                boundsBoard.left + tile.getX() * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
-                                boundsBoard.top + tile.getY() * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
+
+                        canvas.drawText(Score.getTimeMinSec(rewindTime),
+                                (int) (boundsLevelTimeline.left + 1.0 * rewindTime / maxElapsedTime * boundsLevelTimeline.width() - paint.measureText(Score.getTimeMinSec(rewindTime)) / 2),
+                                boundsLevelTimeline.bottom,
                                 paint);
                     }
                 }
-            }
 
-            // Draw robots
-
-            for (Robot robot : robots) {
-                if (robot.isVisible()) {
-
-                    for (int i = 0; i < (snapshot ? 1 : THREE_DIMENSIONAL_VALUE / 2); i++) {
-                        rotateMatrix.reset();
-
-                        rotateImage(rotateMatrix, bitmapArray.get(robot.equals(getCurrentRobot()) ? ROBOT + CURRENT : ROBOT), robot.getViewDirection() * 90);
-                        rotateMatrix.postTranslate(boundsBoard.left + robot.getViewX() * drawTileSize - i * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
-                                boundsBoard.top + robot.getViewY() * drawTileSize - i * THREE_DIMENSIONAL_Y_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER);
-                        canvas.drawBitmap(bitmapArray.get(robot.equals(getCurrentRobot()) ? ROBOT + CURRENT : ROBOT), rotateMatrix, paint);
+                // Draw movable boxes
+                for (int b = 0; b < frame.getBoxCount(); b++) {
+                    if (frame.isBoxVisible(b)) {
+                        for (int i = 0; i < (snapshot ? 1 : ROBOT_LAYERS); i++) {
+                            spriteAtlas.draw(canvas, SpriteAtlas.getMovableBoxSprite(frame.getBoxColor(b)),
+                                    boundsBoard.left + frame.getBoxViewX(b) * drawTileSize - i * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
+                                    boundsBoard.top + frame.getBoxViewY(b) * drawTileSize - i * THREE_DIMENSIONAL_Y_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
+                                    paint);
+                        }
                     }
                 }
 
-                if (!snapshot && robot.getLastMoveCommand() != null && robot.getLastMoveCommand().getDirection() == Movable.MOVE_BACK_IN_TIME) {
-                    canvas.drawBitmap(bitmapArray.get(REWIND_ICON),
-                            (int) (boundsLevelTimeline.left + 1.0 * robot.getLastMoveCommand().getExecuteTime() / maxElapsedTime * boundsLevelTimeline.width() - bitmapArray.get(REWIND_ICON).getWidth() / 2),
-                            boundsLevelTimeline.exactCenterY() - bitmapArray.get(REWIND_ICON).getHeight() / 2,
-                            paint);
-
-                    canvas.drawText(Score.getTimeMinSec(robot.getLastMoveCommand().getExecuteTime()),
-                            (int) (boundsLevelTimeline.left + 1.0 * robot.getLastMoveCommand().getExecuteTime() / maxElapsedTime * boundsLevelTimeline.width() - paint.measureText(Score.getTimeMinSec(robot.getLastMoveCommand().getExecuteTime())) / 2),
-                            boundsLevelTimeline.bottom,
+                // Draw particles
+                for (int i = 0; i < frame.getParticleCount(); i++) {
+                    paint.setAlpha(255 - (int) (frame.getParticlePercentDone(i) * 255));
+                    spriteAtlas.draw(canvas, SpriteAtlas.PARTICLE,
+                            boundsBoard.left + frame.getParticleX(i) * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
+                            boundsBoard.top + frame.getParticleY(i) * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
                             paint);
                 }
-            }
+                paint.setAlpha(255);
 
-            // Draw movable boxes
-            for (MovableBox movableBox : movableBoxes) {
-                if (movableBox.isVisible()) {
-                    for (int i = 0; i < (snapshot ? 1 : THREE_DIMENSIONAL_VALUE / 2); i++) {
-                        canvas.drawBitmap(bitmapArray.get(MOVABLE_BOX + movableBox.getColor()),
-                                boundsBoard.left + movableBox.getViewX() * drawTileSize - i * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
-                                boundsBoard.top + movableBox.getViewY() * drawTileSize - i * THREE_DIMENSIONAL_Y_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
-                                paint);
-                    }
-                }
-            }
+                // Draw pre-rendered walls
+                canvas.drawBitmap(bitmapBoardWalls, boundsBoard.left, boundsBoard.top, paint);
 
-            // Draw particles
-            for (Particle particle : particles) {
-                paint.setAlpha(255 - (int) (particle.getPercentDone() * 255));
-                canvas.drawBitmap(bitmapArray.get(PARTICLE),
-                        boundsBoard.left + particle.getX() * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
-                        boundsBoard.top + particle.getY() * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
-                        paint);
-            }
-            paint.setAlpha(255);
+            } catch (NullPointerException e) {
 
-            // Draw pre-rendered walls
-            canvas.drawBitmap(bitmapBoardWalls, boundsBoard.left, boundsBoard.top, paint);
+                // If level hasn't been loaded yet
+                paint.setColor(getResources().getColor(R.color.background));
+                canvas.drawRect(0, 0, canvas.getWidth(), canvas.getHeight(), paint);
 
-        } catch (NullPointerException e) {
+                paint.setColor(getResources().getColor(R.color.text_active));
 
-            // If level hasn't been loaded yet
-            paint.setColor(getResources().getColor(R.color.background));
-            canvas.drawRect(0, 0, canvas.getWidth(), canvas.getHeight(), paint);
-
-            paint.setColor(getResources().getColor(R.color.text_active));
-
-            canvas.drawText(getResources().getText(R.string.loading).toString(), canvas.getWidth() / 2, canvas.getHeight() / 2, paint);
+                canvas.drawText(getResources().getText(R.string.loading).toString(), canvas.getWidth() / 2, canvas.getHeight() / 2, paint);
+            }
         }
     }
 
@@ -458,197 +473,128 @@ public class Board extends ContextWrapper {
      * @param paint  paint to use to draw
      */
     public synchronized void initializeBitmaps(int width, int height, Paint paint) {
-        // Initializes the bitmap array
-        bitmapArray = new HashMap<String, Bitmap>();
-
-        if (snapshot) {
-            boundsBoard = new Rect(0, 0, width, height);
-        } else {
-            boundsLevelTimeline = new Rect(getResources().getDimensionPixelSize(R.dimen.rewind_timeline_padding), 0, width - getResources().getDimensionPixelSize(R.dimen.rewind_timeline_padding), getResources().getDimensionPixelSize(R.dimen.rewind_timeline_height));
-
-            bitmapLevelTimeline = (NinePatchDrawable) getResources().getDrawable(R.drawable.level_timeline);
-            bitmapLevelTimeline.setBounds(boundsLevelTimeline);
-
-            boundsBoard = new Rect(0, boundsLevelTimeline.bottom, width, height - boundsLevelTimeline.height());
-        }
-
-        int drawBorderSize = getResources().getDimensionPixelSize(R.dimen.board_padding);
-        // Sets the tile size that will be used
-        if (boundsBoard.width() / tileNumberX < boundsBoard.height() / tileNumberY) {
-            drawTileSize = (boundsBoard.width() - drawBorderSize * 2) / tileNumberX;
-        } else {
-            drawTileSize = (boundsBoard.height() - drawBorderSize * 2) / tileNumberY;
-        }
-
-        // Initializes a rectangle for less calculations on where to draw
-        boundsBoard.set((width - drawTileSize * tileNumberX) / 2, (height - drawTileSize * tileNumberY) / 2, drawTileSize * tileNumberX, drawTileSize * tileNumberY);
-
-        // Puts each bitmap into a map using labels
-        // Wall bitmaps
-        bitmapArray.put(Tile.TILE_WALL + Tile.ALONE_LABEL, createScaledBitmap(R.drawable.tile_wall_alone, drawTileSize));
+        long start = System.nanoTime();
 
-        bitmapArray.put(Tile.TILE_WALL + Tile.ENDPOINT_LABEL + Tile.UP, createScaledBitmap(R.drawable.tile_wall_endpoint_up, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.ENDPOINT_LABEL + Tile.RIGHT, createScaledBitmap(R.drawable.tile_wall_endpoint_right, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.ENDPOINT_LABEL + Tile.DOWN, createScaledBitmap(R.drawable.tile_wall_endpoint_down, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.ENDPOINT_LABEL + Tile.LEFT, createScaledBitmap(R.drawable.tile_wall_endpoint_left, drawTileSize));
+        // Holds the render lock as well, so the render thread never draws with half-initialized bitmaps
+        synchronized (renderLock) {
+            drawWidth = width;
+            drawHeight = height;
+            fullRedraw = true;
 
-        bitmapArray.put(Tile.TILE_WALL + Tile.MIDDLE_LABEL + Tile.UP_DOWN, createScaledBitmap(R.drawable.tile_wall_middle_up_down, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.MIDDLE_LABEL + Tile.LEFT_RIGHT, createScaledBitmap(R.drawable.tile_wall_middle_left_right, drawTileSize));
+            if (snapshot) {
+                boundsBoard = new Rect(0, 0, width, height);
+            } else {
+                boundsLevelTimeline = new Rect(getResources().getDimensionPixelSize(R.dimen.rewind_timeline_padding), 0, width - getResources().getDimensionPixelSize(R.dimen.rewind_timeline_padding), getResources().getDimensionPixelSize(R.dimen.rewind_timeline_height));
 
-        bitmapArray.put(Tile.TILE_WALL + Tile.CORNER_LABEL + Tile.UP, createScaledBitmap(R.drawable.tile_wall_corner_up, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.CORNER_LABEL + Tile.RIGHT, createScaledBitmap(R.drawable.tile_wall_corner_right, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.CORNER_LABEL + Tile.DOWN, createScaledBitmap(R.drawable.tile_wall_corner_down, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.CORNER_LABEL + Tile.LEFT, createScaledBitmap(R.drawable.tile_wall_corner_left, drawTileSize));
+                bitmapLevelTimeline = (NinePatchDrawable) getResources().getDrawable(R.drawable.level_timeline);
+                bitmapLevelTimeline.setBounds(boundsLevelTimeline);
 
-        bitmapArray.put(Tile.TILE_WALL + Tile.T_LABEL + Tile.UP, createScaledBitmap(R.drawable.tile_wall_t_up, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.T_LABEL + Tile.RIGHT, createScaledBitmap(R.drawable.tile_wall_t_right, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.T_LABEL + Tile.DOWN, createScaledBitmap(R.drawable.tile_wall_t_down, drawTileSize));
-        bitmapArray.put(Tile.TILE_WALL + Tile.T_LABEL + Tile.LEFT, createScaledBitmap(R.drawable.tile_wall_t_left, drawTileSize));
+                // The strip redrawn when the timeline changes, which also covers the icons and times that hang below the timeline
+                boundsTimelineDirty = new Rect(0, 0, width, boundsLevelTimeline.bottom + getResources().getDimensionPixelSize(R.dimen.rewind_icon_size));
 
-        bitmapArray.put(Tile.TILE_WALL + Tile.CROSS_LABEL, createScaledBitmap(R.drawable.tile_wall_cross, drawTileSize));
-
-        // Floor bitmaps
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.ALONE_LABEL, createScaledBitmap(R.drawable.tile_floor_alone, drawTileSize));
-
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.ENDPOINT_LABEL + Tile.UP, createScaledBitmap(R.drawable.tile_floor_endpoint_up, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.ENDPOINT_LABEL + Tile.RIGHT, createScaledBitmap(R.drawable.tile_floor_endpoint_right, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.ENDPOINT_LABEL + Tile.DOWN, createScaledBitmap(R.drawable.tile_floor_endpoint_down, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.ENDPOINT_LABEL + Tile.LEFT, createScaledBitmap(R.drawable.tile_floor_endpoint_left, drawTileSize));
-
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.MIDDLE_LABEL + Tile.UP_DOWN, createScaledBitmap(R.drawable.tile_floor_middle_up_down, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.MIDDLE_LABEL + Tile.LEFT_RIGHT, createScaledBitmap(R.drawable.tile_floor_middle_left_right, drawTileSize));
-
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.CORNER_LABEL + Tile.UP, createScaledBitmap(R.drawable.tile_floor_corner_up, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.CORNER_LABEL + Tile.RIGHT, createScaledBitmap(R.drawable.tile_floor_corner_right, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.CORNER_LABEL + Tile.DOWN, createScaledBitmap(R.drawable.tile_floor_corner_down, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.CORNER_LABEL + Tile.LEFT, createScaledBitmap(R.drawable.tile_floor_corner_left, drawTileSize));
-
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.T_LABEL + Tile.UP, createScaledBitmap(R.drawable.tile_floor_t_up, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.T_LABEL + Tile.RIGHT, createScaledBitmap(R.drawable.tile_floor_t_right, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.T_LABEL + Tile.DOWN, createScaledBitmap(R.drawable.tile_floor_t_down, drawTileSize));
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.T_LABEL + Tile.LEFT, createScaledBitmap(R.drawable.tile_floor_t_left, drawTileSize));
-
-        bitmapArray.put(Tile.TILE_FLOOR + Tile.CROSS_LABEL, createScaledBitmap(R.drawable.tile_floor_cross, drawTileSize));
-
-        bitmapArray.put(TILE_MOVABLE_BOX_DEACTIVATED + MovableBox.MOVABLE_BOX_COLORS.YELLOW.getID(), createScaledBitmap(R.drawable.tile_movable_box_yellow_deactivated, drawTileSize));
-        bitmapArray.put(TILE_MOVABLE_BOX_ACTIVATED + MovableBox.MOVABLE_BOX_COLORS.YELLOW.getID(), createScaledBitmap(R.drawable.tile_movable_box_yellow_activated, drawTileSize));
+                boundsBoard = new Rect(0, boundsLevelTimeline.bottom, width, height - boundsLevelTimeline.height());
+            }
 
-        bitmapArray.put(ROBOT, createScaledBitmap(R.drawable.robot, drawTileSize));
-        bitmapArray.put(ROBOT + CURRENT, createScaledBitmap(R.drawable.robot_current, drawTileSize));
+            int drawBorderSize = getResources().getDimensionPixelSize(R.dimen.board_padding);
+            // Sets the tile size that will be used
+            if (boundsBoard.width() / tileNumberX < boundsBoard.height() / tileNumberY) {
+                drawTileSize = (boundsBoard.width() - drawBorderSize * 2) / tileNumberX;
+            } else {
+                drawTileSize = (boundsBoard.height() - drawBorderSize * 2) / tileNumberY;
+            }
 
-        bitmapArray.put(MOVABLE_BOX + MovableBox.MOVABLE_BOX_COLORS.YELLOW.getID(), createScaledBitmap(R.drawable.movable_box_yellow, drawTileSize));
+            // Initializes a rectangle for less calculations on where to draw
+            boundsBoard.set((width - drawTileSize * tileNumberX) / 2, (height - drawTileSize * tileNumberY) / 2, drawTileSize * tileNumberX, drawTileSize * tileNumberY);
 
-        bitmapArray.put(PARTICLE, createScaledBitmap(R.drawable.particle, drawTileSize));
+            // Shares the sprites with every other board of the same tile size, and gives up the sprites for the old size
+            SpriteAtlas oldSpriteAtlas = spriteAtlas;
+            spriteAtlas = SpriteAtlas.acquire(getResources(), drawTileSize);
+            if (oldSpriteAtlas != null) {
+                oldSpriteAtlas.release();
+            }
 
-        bitmapArray.put(REWIND_ICON, createScaledBitmap(R.drawable.rewind_icon, getResources().getDimensionPixelSize(R.dimen.rewind_icon_size)));
-        bitmapArray.put(REWIND_ICON + CURRENT, createScaledBitmap(R.drawable.rewind_icon_current, getResources().getDimensionPixelSize(R.dimen.rewind_icon_size)));
+            TileGrid tiles = simulation.getTiles();
 
-        // Pre draws the floor so that this will only need to be done once
-        bitmapBoardFloor = Bitmap.createBitmap(boundsBoard.left + (tileNumberX * drawTileSize), boundsBoard.top + (tileNumberY * drawTileSize), Bitmap.Config.ARGB_8888);
-        Canvas tempCanvas = new Canvas(bitmapBoardFloor);
+            // Pre draws the floor so that this will only need to be done once
+            bitmapBoardFloor = Bitmap.createBitmap(boundsBoard.left + (tileNumberX * drawTileSize), boundsBoard.top + (tileNumberY * drawTileSize), Bitmap.Config.ARGB_8888);
+            Canvas tempCanvas = new Canvas(bitmapBoardFloor);
 
-        for (int i = 0; i < tiles.length; i++) {
-            for (int j = 0; j < tiles[i].length; j++) {
-                tempCanvas.drawBitmap(bitmapArray.get(tiles[i][j].getDisplayID()),
-                        j * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
-                        i * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
-                        paint);
+            for (int i = 0; i < tiles.getHeight(); i++) {
+                for (int j = 0; j < tiles.getWidth(); j++) {
+                    spriteAtlas.draw(tempCanvas, SpriteAtlas.getTileSprite(tiles.getType(j, i), tiles.getNeighbourMask(j, i)),
+                            j * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
+                            i * drawTileSize + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
+                            paint);
+                }
             }
-        }
 
-        // Pre draw the walls
-        bitmapBoardWalls = Bitmap.createBitmap(boundsBoard.left + (tileNumberX * drawTileSize), boundsBoard.top + (tileNumberY * drawTileSize), Bitmap.Config.ARGB_8888);
-        tempCanvas = new Canvas(bitmapBoardWalls);
-        for (int i = 0; i < tiles.length; i++) {
-            for (int j = 0; j < tiles[i].length; j++) {
-                if (tiles[i][j].getID().equals(Tile.TILE_WALL)) {
-                    for (int k = 0; k < (snapshot ? 1 : THREE_DIMENSIONAL_VALUE); k++) {
-                        tempCanvas.drawBitmap(bitmapArray.get(tiles[i][j].getDisplayID()),
-                                j * drawTileSize - k * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
-                                i * drawTileSize - k * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
-                                paint);
+            // Pre draw the walls
+            bitmapBoardWalls = Bitmap.createBitmap(boundsBoard.left + (tileNumberX * drawTileSize), boundsBoard.top + (tileNumberY * drawTileSize), Bitmap.Config.ARGB_8888);
+            tempCanvas = new Canvas(bitmapBoardWalls);
+            for (int i = 0; i < tiles.getHeight(); i++) {
+                for (int j = 0; j < tiles.getWidth(); j++) {
+                    if (tiles.isWall(j, i)) {
+                        for (int k = 0; k < (snapshot ? 1 : THREE_DIMENSIONAL_VALUE); k++) {
+                            spriteAtlas.draw(tempCanvas, SpriteAtlas.getTileSprite(tiles.getType(j, i), tiles.getNeighbourMask(j, i)),
+                                    j * drawTileSize - k * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_X_MULTIPLIER,
+                                    i * drawTileSize - k * THREE_DIMENSIONAL_X_MULTIPLIER + THREE_DIMENSIONAL_VALUE * THREE_DIMENSIONAL_Y_MULTIPLIER,
+                                    paint);
+                        }
                     }
                 }
             }
         }
-    }
 
-    /**
-     * Rotates the image the specified number of degrees using the passed matrix
-     *
-     * @param matrix       matrix used for drawing
-     * @param bitmap       image to be rotated
-     * @param angleDegrees angled to be rotated in degrees
-     * @return updated version of the matrix used for drawing
-     */
-    private static Matrix rotateImage(Matrix matrix, Bitmap bitmap, float angleDegrees) {
-        matrix.postTranslate(-bitmap.getWidth() / 2, -bitmap.getHeight() / 2);
-        matrix.postRotate(angleDegrees);
-        matrix.postTranslate(bitmap.getWidth() / 2, bitmap.getHeight() / 2);
-        return matrix;
+        // Level previews are left out, so only the game's own surface changes are counted
+        if (!snapshot) {
+            LatencyStats.BITMAPS.record(System.nanoTime() - start);
+        }
     }
 
     /**
-     * Creates a bitmap from the given id that is scaled the tile size for the board
-     *
-     * @param resourceID resource id that will be passed to the resources
-     * @return created, scaled bitmap
+     * Releases the images used for drawing the board. The board shows the loading screen until initializeBitmaps is called again
      */
-    private Bitmap createScaledBitmap(int resourceID, int size) {
-        return Bitmap.createScaledBitmap(BitmapFactory.decodeResource(getResources(), resourceID), size, size, false);
-    }
+    public synchronized void releaseBitmaps() {
+        synchronized (renderLock) {
+            if (spriteAtlas != null) {
+                spriteAtlas.release();
+                spriteAtlas = null;
+            }
 
-    /**
-     * Parses the level string to get the number of columns
-     *
-     * @param level level string as given by Level.getLevelString()
-     * @return number of columns for the given level
-     */
-    public static int getTileNumberX(String level) {
-        return level.indexOf("_");
+            releaseBoardBitmaps();
+        }
     }
 
     /**
-     * Parses the level string to get the number of rows
-     *
-     * @param level level string as given by Level.getLevelString()
-     * @return number of rows for the given level
+     * Releases only the pre-drawn floor and wall images, keeping this board's share of the sprites. The board shows the loading screen until initializeBitmaps is called again
      */
-    public static int getTileNumberY(String level) {
-        return (level.lastIndexOf("_") + 1) / (getTileNumberX(level) + 1);
+    public synchronized void releaseBoardBitmaps() {
+        synchronized (renderLock) {
+            bitmapBoardFloor = null;
+            bitmapBoardWalls = null;
+            fullRedraw = true;
+        }
     }
 
     /**
      * @return the robot that is currently being controlled
      */
     public synchronized Robot getCurrentRobot() {
-        return robots.get(robots.size() - 1);
+        return simulation.getCurrentRobot();
     }
 
     /**
      * @return the robot array (all robots in the current game)
      */
     public synchronized ArrayList<Robot> getRobots() {
-        return robots;
+        return simulation.getRobots();
     }
 
     /**
      * @return the flag showing if it is legal to reset the time
      */
     public synchronized boolean canWarpBackInTime() {
-        return canWarpBackInTime && !won;
-    }
-
-    /**
-     * @return the totalElapsedTime from all robot states in milliseconds
-     */
-    private synchronized long getTotalElapsedTime() {
-        long totalElapsedTime = 0;
-        for (Robot robot : robots) {
-            totalElapsedTime += robot.getLastMoveCommand().getExecuteTime();
-        }
-
-        return totalElapsedTime;
+        return simulation.canWarpBackInTime();
     }
 
     public synchronized boolean isRunning() {
@@ -663,44 +609,20 @@ public class Board extends ContextWrapper {
      * @return the flag showing if the game is won
      */
     public synchronized boolean haveWon() {
-        return won;
-    }
-
-    /**
-     * @return an array of all movable objects on the board
-     */
-    public synchronized ArrayList<Movable> getMovables() {
-        ArrayList<Movable> movables = new ArrayList<Movable>();
-
-        movables.addAll(robots);
-        movables.addAll(movableBoxes);
-
-        return movables;
+        return simulation.haveWon();
     }
 
     // Constants that control the fake 3D effect that is drawn
-    private static final int THREE_DIMENSIONAL_VALUE = 8;
-    private static final float THREE_DIMENSIONAL_X_MULTIPLIER = 1.0f;
-    private static final float THREE_DIMENSIONAL_Y_MULTIPLIER = 1.0f;
-
-    // Constants for identifying other objects
-    public static final String ROBOT = "ROBOT";
-    public static final String CURRENT = "_CURRENT";
-    public static final String TILE_MOVABLE_BOX_DEACTIVATED = "TILE_MOVABLE_BOX_DEACTIVATED_";
-    public static final String TILE_MOVABLE_BOX_ACTIVATED = "TILE_MOVABLE_BOX_ACTIVATED_";
-    public static final String MOVABLE_BOX = "MOVABLE_BOX_";
-    public static final String PARTICLE = "PARTICLE";
-    public static final String REWIND_ICON = "REWIND_ICON";
-
-    // Constants for decoding level strings
-    private static final String BOX_CODES = "a";
-    private static final char WALL_CODE = '1';
-    private static final String ROBOT_CODES = "^>v<";
+    static final int THREE_DIMENSIONAL_VALUE = 8;
+    static final float THREE_DIMENSIONAL_X_MULTIPLIER = 1.0f;
+    static final float THREE_DIMENSIONAL_Y_MULTIPLIER = 1.0f;
 
-    /**
-     * Delay for the update thread in milliseconds
-     */
-    private static final long DELAY_PERIOD = 5;
+    // Number of layers drawn for each robot and box
+    static final int ROBOT_LAYERS = THREE_DIMENSIONAL_VALUE / 2;
+
+    // Length of a simulation tick in nanoseconds, and the most ticks one frame can catch up on
+    private static final long TICK_NANOS = Simulation.TICK_LENGTH * 1000000L;
+    private static final long MAX_TICKS_PER_FRAME = 20;
 
     private static final String LOG_TAG = "Board";
 }
@@ -0,0 +1,286 @@
+package com.piguy.Temporal_Bot;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A level string parsed once into its dimensions, tile grid, spawns and goals. Compiled levels are never changed after they are built, so they are cached by level string and shared by every simulation playing the same level
+ *
+ * @author Alex Vanyo
+ */
+public class CompiledLevel {
+
+    private int tileNumberX;
+    private int tileNumberY;
+    private TileGrid tiles;
+
+    private int[] robotXs;
+    private int[] robotYs;
+    private int[] robotDirections;
+
+    private int[] boxXs;
+    private int[] boxYs;
+    private int[] boxColors;
+
+    private int[] goalXs;
+    private int[] goalYs;
+    private int[] goalColors;
+
+    private BitSet spawnCells;
+
+    private CompiledLevel(String levelString) {
+        tileNumberX = getTileNumberX(levelString);
+        tileNumberY = getTileNumberY(levelString);
+        tiles = new TileGrid(tileNumberX, tileNumberY);
+
+        // Counts each kind of spawn so that the arrays can be sized exactly
+        int robotCount = 0;
+        int boxCount = 0;
+        int goalCount = 0;
+        for (int i = 0; i < tileNumberY; i++) {
+            for (int j = 0; j < tileNumberX; j++) {
+                char tile = levelString.charAt((i * (tileNumberX + 1)) + j);
+
+                if (BOX_CODES.indexOf(Character.toLowerCase(tile)) != -1) {
+                    if (Character.isUpperCase(tile)) {
+                        goalCount++;
+                    } else {
+                        boxCount++;
+                    }
+                } else if (ROBOT_CODES.indexOf(tile) != -1) {
+                    robotCount++;
+                }
+            }
+        }
+
+        robotXs = new int[robotCount];
+        robotYs = new int[robotCount];
+        robotDirections = new int[robotCount];
+        boxXs = new int[boxCount];
+        boxYs = new int[boxCount];
+        boxColors = new int[boxCount];
+        goalXs = new int[goalCount];
+        goalYs = new int[goalCount];
+        goalColors = new int[goalCount];
+        spawnCells = new BitSet(tileNumberX * tileNumberY);
+
+        // Initializes the board to be either floor or wall, and records where each special object starts
+        robotCount = 0;
+        boxCount = 0;
+        goalCount = 0;
+        for (int i = 0; i < tileNumberY; i++) {
+            for (int j = 0; j < tileNumberX; j++) {
+                char tile = levelString.charAt((i * (tileNumberX + 1)) + j);
+
+                if (Character.isUpperCase(tile)) {
+                    tiles.setType(j, i, Tile.MOVABLE_BOX);
+                } else {
+                    tiles.setType(j, i, (tile == WALL_CODE) ? Tile.WALL : Tile.FLOOR);
+                }
+
+                int boxCode = BOX_CODES.indexOf(Character.toLowerCase(tile));
+                int robotCode = ROBOT_CODES.indexOf(tile);
+                if (boxCode != -1) {
+                    if (Character.isUpperCase(tile)) {
+                        goalXs[goalCount] = j;
+                        goalYs[goalCount] = i;
+                        goalColors[goalCount] = boxCode;
+                        goalCount++;
+                    } else {
+                        boxXs[boxCount] = j;
+                        boxYs[boxCount] = i;
+                        boxColors[boxCount] = boxCode;
+                        boxCount++;
+
+                        spawnCells.set(i * tileNumberX + j);
+                    }
+                } else if (robotCode != -1) {
+                    robotXs[robotCount] = j;
+                    robotYs[robotCount] = i;
+                    robotDirections[robotCount] = robotCode;
+                    robotCount++;
+
+                    spawnCells.set(i * tileNumberX + j);
+                }
+            }
+        }
+
+        // Gives each tile the direction-based variant for drawing purposes
+        tiles.autotile();
+    }
+
+    /**
+     * Gets the compiled form of a level string, compiling it only if it is not already cached
+     *
+     * @param levelString level string as given by Level.getLevelString()
+     * @return compiled level
+     */
+    public static CompiledLevel compile(String levelString) {
+        synchronized (CACHE) {
+            CompiledLevel compiledLevel = CACHE.get(levelString);
+            if (compiledLevel == null) {
+                compiledLevel = new CompiledLevel(levelString);
+                CACHE.put(levelString, compiledLevel);
+            }
+            return compiledLevel;
+        }
+    }
+
+    /**
+     * Parses the level string to get the number of columns
+     *
+     * @param level level string as given by Level.getLevelString()
+     * @return number of columns for the given level
+     */
+    public static int getTileNumberX(String level) {
+        return level.indexOf("_");
+    }
+
+    /**
+     * Parses the level string to get the number of rows
+     *
+     * @param level level string as given by Level.getLevelString()
+     * @return number of rows for the given level
+     */
+    public static int getTileNumberY(String level) {
+        return (level.lastIndexOf("_") + 1) / (getTileNumberX(level) + 1);
+    }
+
+    /**
+     * @return number of columns on the board
+     */
+    public int getTileNumberX() {
+        return tileNumberX;
+    }
+
+    /**
+     * @return number of rows on the board
+     */
+    public int getTileNumberY() {
+        return tileNumberY;
+    }
+
+    /**
+     * @return the tile grid for the level, which must not be changed
+     */
+    public TileGrid getTiles() {
+        return tiles;
+    }
+
+    /**
+     * @return number of robots that the level starts with
+     */
+    public int getRobotCount() {
+        return robotXs.length;
+    }
+
+    /**
+     * @param index index of the robot
+     * @return x position the robot starts at
+     */
+    public int getRobotX(int index) {
+        return robotXs[index];
+    }
+
+    /**
+     * @param index index of the robot
+     * @return y position the robot starts at
+     */
+    public int getRobotY(int index) {
+        return robotYs[index];
+    }
+
+    /**
+     * @param index index of the robot
+     * @return direction the robot starts facing
+     */
+    public int getRobotDirection(int index) {
+        return robotDirections[index];
+    }
+
+    /**
+     * @return number of movable boxes in the level
+     */
+    public int getBoxCount() {
+        return boxXs.length;
+    }
+
+    /**
+     * @param index index of the movable box
+     * @return x position the movable box starts at
+     */
+    public int getBoxX(int index) {
+        return boxXs[index];
+    }
+
+    /**
+     * @param index index of the movable box
+     * @return y position the movable box starts at
+     */
+    public int getBoxY(int index) {
+        return boxYs[index];
+    }
+
+    /**
+     * @param index index of the movable box
+     * @return color index of the movable box
+     */
+    public int getBoxColor(int index) {
+        return boxColors[index];
+    }
+
+    /**
+     * @return number of movable box tiles in the level
+     */
+    public int getGoalCount() {
+        return goalXs.length;
+    }
+
+    /**
+     * @param index index of the movable box tile
+     * @return x position of the movable box tile
+     */
+    public int getGoalX(int index) {
+        return goalXs[index];
+    }
+
+    /**
+     * @param index index of the movable box tile
+     * @return y position of the movable box tile
+     */
+    public int getGoalY(int index) {
+        return goalYs[index];
+    }
+
+    /**
+     * @param index index of the movable box tile
+     * @return color index of the movable box tile
+     */
+    public int getGoalColor(int index) {
+        return goalColors[index];
+    }
+
+    /**
+     * @return the cells that robots and boxes start on, which must not be changed
+     */
+    public BitSet getSpawnCells() {
+        return spawnCells;
+    }
+
+    // Constants for decoding level strings
+    private static final String BOX_CODES = "a";
+    private static final char WALL_CODE = '1';
+    private static final String ROBOT_CODES = "^>v<";
+
+    // Bounded cache of compiled levels, which drops the least recently used level when full
+    private static final int CACHE_SIZE = 16;
+    private static final Map<String, CompiledLevel> CACHE = new LinkedHashMap<String, CompiledLevel>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledLevel> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private static final String LOG_TAG = "CompiledLevel";
+}
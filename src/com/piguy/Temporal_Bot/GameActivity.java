@@ -1,8 +1,10 @@
 package com.piguy.Temporal_Bot;
 
 import android.app.Activity;
+import android.content.pm.ApplicationInfo;
 import android.media.MediaPlayer;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.*;
 import android.widget.*;
@@ -18,6 +20,8 @@ import java.util.TimerTask;
  */
 public class GameActivity extends Activity implements GestureDetector.OnGestureListener, GameStateListener {
 
+    private Level level;
+
     private GameView gameView;
     private ToggleButton resetTimeButton;
     private LinearLayout pauseMenu;
@@ -25,6 +29,8 @@ public class GameActivity extends Activity implements GestureDetector.OnGestureL
     private LinearLayout instructionLayout;
 
     private GestureDetector gestureDetector;
+    private boolean scrubbing;
+    private int[] gameViewLocation = new int[2];
 
     private MediaPlayer mediaPlayer;
 
@@ -40,7 +46,7 @@ public class GameActivity extends Activity implements GestureDetector.OnGestureL
         this.setContentView(R.layout.game);
         this.overridePendingTransition(R.anim.slide_enter_from_right, R.anim.slide_exit_to_left);
 
-        Level level = this.getIntent().getExtras().getParcelable(LevelMenuActivity.INTENT_EXTRA_LEVEL);
+        level = this.getIntent().getExtras().getParcelable(LevelMenuActivity.INTENT_EXTRA_LEVEL);
 
         gestureDetector = new GestureDetector(this, this);
 
@@ -51,6 +57,9 @@ public class GameActivity extends Activity implements GestureDetector.OnGestureL
         gameView.board.setLevel(level, false);
         gameView.board.setGameStateListener(this);
 
+        // Shows the latency overlay in debug builds
+        gameView.setShowLatencyStats((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+
         this.reset();
 
         pauseMenu = (LinearLayout) this.findViewById(R.id.pause_layout);
@@ -92,7 +101,7 @@ public class GameActivity extends Activity implements GestureDetector.OnGestureL
     @Override
     public void onResume() {
         super.onResume();
-        gameView.board.startTimer();
+        gameView.board.startClock();
     }
 
     @Override
@@ -107,9 +116,14 @@ public class GameActivity extends Activity implements GestureDetector.OnGestureL
         super.onPause();
 
         mediaPlayer.pause();
-        gameView.board.stopTimer();
+        gameView.board.stopClock();
 
         pause(null);
+
+        // Makes sure a score from a game that was just won is saved before the app can be stopped
+        new LevelDatabaseHelper(this).flushScores();
+
+        LatencyStats.dump("Level " + level.getID());
     }
 
     @Override
@@ -150,6 +164,11 @@ public class GameActivity extends Activity implements GestureDetector.OnGestureL
     @Override
     public boolean onDown(MotionEvent event) {
         //Log.d(LOG_TAG,"onDown: " + event.toString());
+
+        // Touches that start on the level timeline scrub through time instead of moving the robot
+        gameView.getLocationInWindow(gameViewLocation);
+        scrubbing = !gameView.board.haveWon() && gameView.board.isOnTimeline(event.getX() - gameViewLocation[0], event.getY() - gameViewLocation[1]);
+
         return true;
     }
 
@@ -170,13 +189,14 @@ public class GameActivity extends Activity implements GestureDetector.OnGestureL
 
         //Log.d(LOG_TAG, xDifference + " : " + yDifference);
         //Log.d(LOG_TAG, velocityX + " : " + velocityY);
-        if (!gameView.board.haveWon()) {
+        if (!scrubbing && !gameView.board.haveWon()) {
             if (Math.abs(xDifference) > Math.abs(yDifference)) {
                 gameView.board.addMoveCommandToCurrent(xDifference > 0 ? Movable.MOVE_RIGHT : Movable.MOVE_LEFT);
             } else {
                 gameView.board.addMoveCommandToCurrent(yDifference > 0 ? Movable.MOVE_DOWN : Movable.MOVE_UP);
             }
 
+            LatencyStats.INPUT.record((SystemClock.uptimeMillis() - event2.getEventTime()) * 1000000);
         }
 
         return true;
@@ -190,6 +210,13 @@ public class GameActivity extends Activity implements GestureDetector.OnGestureL
     @Override
     public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
         //Log.d(LOG_TAG, "onScroll: " + e1.toString()+e2.toString());
+        if (scrubbing) {
+            gameView.board.seekTimeline(e2.getX() - gameViewLocation[0]);
+
+            // Seeking can move the current robot onto or off a spawn cell
+            resetTimeButton.setEnabled(gameView.board.canWarpBackInTime());
+        }
+
         return true;
     }
 
@@ -0,0 +1,144 @@
+package com.piguy.Temporal_Bot;
+
+import android.os.Build;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Single thread that runs the game, calling back once per frame to update and draw. Frames are paced by the display's vsync through Choreographer where it is available, and by sleeping for one refresh period otherwise
+ *
+ * @author Alex Vanyo
+ */
+public class GameLoop implements Runnable {
+
+    /**
+     * Work done once per frame on the game loop thread
+     */
+    public interface Frame {
+        /**
+         * @param frameTimeNanos time of the frame, in the System.nanoTime() time base
+         */
+        public void doGameFrame(long frameTimeNanos);
+    }
+
+    private final Frame frame;
+    private final long frameIntervalNanos;
+
+    private Thread thread;
+    private boolean running;
+    private Looper looper;
+
+    /**
+     * @param frame       work to do each frame
+     * @param refreshRate refresh rate of the display in frames per second, used to pace frames when vsync is not available
+     */
+    public GameLoop(Frame frame, float refreshRate) {
+        this.frame = frame;
+        this.frameIntervalNanos = (long) (NANOS_PER_SECOND / (refreshRate > 0 ? refreshRate : DEFAULT_REFRESH_RATE));
+    }
+
+    /**
+     * Starts the game loop thread
+     */
+    public synchronized void start() {
+        running = true;
+
+        thread = new Thread(this, "GameLoop");
+        thread.start();
+    }
+
+    /**
+     * Stops the game loop thread and waits for the frame in progress to finish
+     */
+    public void stop() {
+        Thread stoppedThread;
+        synchronized (this) {
+            running = false;
+            if (looper != null) {
+                looper.quit();
+            }
+            stoppedThread = thread;
+        }
+
+        if (stoppedThread != null) {
+            stoppedThread.interrupt();
+            try {
+                stoppedThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Looper.prepare();
+            synchronized (this) {
+                if (!running) {
+                    return;
+                }
+                looper = Looper.myLooper();
+            }
+
+            new VsyncCallback().post();
+            Looper.loop();
+        } else {
+            runPacedBySleeping();
+        }
+    }
+
+    /**
+     * Runs frames one refresh period apart, for versions without Choreographer. A frame that runs late pushes the following ones back instead of causing a burst of frames to catch up
+     */
+    private void runPacedBySleeping() {
+        long nextFrameTime = System.nanoTime();
+
+        while (isRunning()) {
+            frame.doGameFrame(System.nanoTime());
+
+            nextFrameTime += frameIntervalNanos;
+            long sleepNanos = nextFrameTime - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / NANOS_PER_MILLISECOND, (int) (sleepNanos % NANOS_PER_MILLISECOND));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                nextFrameTime = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Runs a frame on each vsync. Only loaded on versions that have Choreographer
+     */
+    private class VsyncCallback implements Choreographer.FrameCallback {
+
+        private void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!isRunning()) {
+                return;
+            }
+
+            frame.doGameFrame(frameTimeNanos);
+            post();
+        }
+    }
+
+    private static final float DEFAULT_REFRESH_RATE = 60;
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long NANOS_PER_MILLISECOND = 1000000L;
+
+    private static final String LOG_TAG = "GameLoop";
+}
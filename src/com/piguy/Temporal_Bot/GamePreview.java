@@ -4,6 +4,7 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.widget.ImageView;
 
@@ -18,25 +19,75 @@ public class GamePreview extends ImageView {
 
     private Paint paint;
 
+    private ThumbnailCache thumbnailCache;
+
+    // Key of the thumbnail this preview should show, so a lookup that finishes after the level changed is ignored
+    private String thumbnailKey;
+
     public GamePreview(Context context, AttributeSet attrs) {
         super(context, attrs);
 
-        this.board = new Board(context);
-
         this.paint = new Paint();
+
+        this.thumbnailCache = new ThumbnailCache(context);
     }
 
     /**
-     * Sets the level that the preview will show and creates/sets its bitmap to be that level
+     * Sets the level that the preview will show and sets its bitmap to be that level. The bitmap comes from the thumbnail cache when possible, and the board is only drawn on a miss
      *
      * @param level level for the thumbnail
      */
-    public void setLevel(Level level) {
+    public void setLevel(final Level level) {
+        final int width = this.getMeasuredWidth();
+        final int height = this.getMeasuredHeight();
+        thumbnailKey = ThumbnailCache.getKey(level, width, height);
+
+        thumbnailCache.get(thumbnailKey, new ThumbnailCache.LoadListener() {
+            @Override
+            public void thumbnailLoaded(String key, Bitmap bitmap) {
+                if (key.equals(thumbnailKey)) {
+                    setImageBitmap(bitmap != null ? bitmap : drawThumbnail(level, key, width, height));
+                }
+            }
+        });
+    }
+
+    /**
+     * Draws the thumbnail for a level that is not in the thumbnail cache, and adds it to the cache
+     *
+     * @param level  level for the thumbnail
+     * @param key    key of the thumbnail
+     * @param width  width of the thumbnail
+     * @param height height of the thumbnail
+     * @return the thumbnail
+     */
+    private Bitmap drawThumbnail(Level level, String key, int width, int height) {
+        // Initializes the board the first time a thumbnail has to be drawn
+        if (board == null) {
+            board = new Board(getContext());
+        }
+
         board.setLevel(level, true);
-        board.initializeBitmaps(this.getMeasuredWidth(), this.getMeasuredHeight(), paint);
+        board.initializeBitmaps(width, height, paint);
 
-        Bitmap boardBitmap = Bitmap.createBitmap(this.getMeasuredWidth(), this.getMeasuredHeight(), Bitmap.Config.ARGB_8888);
+        Bitmap boardBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        board.prepareFrame(new Rect());
         board.drawBoard(new Canvas(boardBitmap), paint);
-        this.setImageBitmap(boardBitmap);
+        thumbnailCache.put(key, boardBitmap);
+
+        // Only the thumbnail is kept, so the full size floor and wall bitmaps are given up straight away. The sprites stay shared for the next miss
+        board.releaseBoardBitmaps();
+
+        return boardBitmap;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        // Gives up this preview's share of the sprites once it can no longer be shown
+        if (board != null) {
+            board.releaseBitmaps();
+        }
     }
 }
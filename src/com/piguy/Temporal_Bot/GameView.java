@@ -41,11 +41,27 @@ public class GameView extends UpdateView {
         board.drawBoard(canvas, paint);
     }
 
+    @Override
+    public void update(long frameTimeNanos) {
+        board.update(frameTimeNanos);
+    }
+
+    @Override
+    public boolean prepareFrame(Rect dirty) {
+        return board.prepareFrame(dirty);
+    }
+
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
         super.surfaceChanged(holder, format, width, height);
         board.initializeBitmaps(width, height, paint);
     }
 
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        super.surfaceDestroyed(holder);
+        board.releaseBitmaps();
+    }
+
     private static final String LOG_TAG = "GameView";
 }
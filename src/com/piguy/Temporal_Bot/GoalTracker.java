@@ -0,0 +1,107 @@
+package com.piguy.Temporal_Bot;
+
+/**
+ * Keeps count of how many movable box tiles have a box of the matching color on them, so that the win check does not need to compare every tile against every box
+ *
+ * @author Alex Vanyo
+ */
+public class GoalTracker {
+
+    private int width;
+    private int[] goalColors;
+    private int[] matchingBoxes;
+    private int goalCount;
+    private int satisfiedCount;
+
+    public GoalTracker(int width, int height) {
+        this.width = width;
+
+        goalColors = new int[width * height];
+        matchingBoxes = new int[width * height];
+        clear();
+    }
+
+    /**
+     * Removes every goal and box from the tracker
+     */
+    public void clear() {
+        for (int i = 0; i < goalColors.length; i++) {
+            goalColors[i] = NO_GOAL;
+        }
+
+        goalCount = 0;
+        clearBoxes();
+    }
+
+    /**
+     * Forgets where every box is, keeping the goals
+     */
+    public void clearBoxes() {
+        for (int i = 0; i < matchingBoxes.length; i++) {
+            matchingBoxes[i] = 0;
+        }
+
+        satisfiedCount = 0;
+    }
+
+    /**
+     * @param x          x position of the goal
+     * @param y          y position of the goal
+     * @param colorIndex color index of the box that satisfies the goal
+     */
+    public void addGoal(int x, int y, int colorIndex) {
+        goalColors[y * width + x] = colorIndex;
+        goalCount++;
+    }
+
+    /**
+     * Called whenever a box enters a cell
+     *
+     * @param x          x position of the cell
+     * @param y          y position of the cell
+     * @param colorIndex color index of the box
+     */
+    public void boxEntered(int x, int y, int colorIndex) {
+        if (goalColors[y * width + x] == colorIndex) {
+            matchingBoxes[y * width + x]++;
+            satisfiedCount++;
+        }
+    }
+
+    /**
+     * Called whenever a box leaves a cell
+     *
+     * @param x          x position of the cell
+     * @param y          y position of the cell
+     * @param colorIndex color index of the box
+     */
+    public void boxLeft(int x, int y, int colorIndex) {
+        if (goalColors[y * width + x] == colorIndex) {
+            matchingBoxes[y * width + x]--;
+            satisfiedCount--;
+        }
+    }
+
+    /**
+     * @param x x position of the goal
+     * @param y y position of the goal
+     * @return if a box of the matching color is on the goal
+     */
+    public boolean isSatisfied(int x, int y) {
+        return matchingBoxes[y * width + x] > 0;
+    }
+
+    /**
+     * @return if every goal has a box of the matching color on it
+     */
+    public boolean isComplete() {
+        return satisfiedCount == goalCount;
+    }
+
+    /**
+     * Stored for cells that are not a goal
+     */
+    public static final int NO_GOAL = -1;
+
+    private static final String LOG_TAG = "GoalTracker";
+}
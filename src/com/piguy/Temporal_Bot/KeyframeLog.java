@@ -0,0 +1,176 @@
+package com.piguy.Temporal_Bot;
+
+import java.util.ArrayList;
+
+/**
+ * Records compact snapshots of every movable at fixed intervals during a run, so that the simulation can seek to any time by restoring the nearest snapshot and simulating only the rest
+ *
+ * @author Alex Vanyo
+ */
+public class KeyframeLog {
+
+    private long[] times;
+    private int[][] states;
+    private int count;
+
+    public KeyframeLog() {
+        times = new long[INITIAL_CAPACITY];
+        states = new int[INITIAL_CAPACITY][];
+        count = 0;
+    }
+
+    /**
+     * Removes every keyframe
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Records the state of every movable at the given time. Each keyframe holds the won flag, then each robot's command cursor, then one packed int for each robot and box.
+     *
+     * @param time         current time on the board
+     * @param robots       robots on the board
+     * @param movableBoxes movable boxes on the board
+     * @param won          if the game has been won
+     */
+    public void record(long time, ArrayList<Robot> robots, ArrayList<MovableBox> movableBoxes, boolean won) {
+        if (count == times.length) {
+            long[] newTimes = new long[times.length * 2];
+            int[][] newStates = new int[states.length * 2][];
+            System.arraycopy(times, 0, newTimes, 0, count);
+            System.arraycopy(states, 0, newStates, 0, count);
+            times = newTimes;
+            states = newStates;
+        }
+
+        int size = 1 + robots.size() * 2 + movableBoxes.size();
+
+        // Reuse the array left behind by a truncated keyframe if it is the right size
+        int[] state = states[count];
+        if (state == null || state.length != size) {
+            state = new int[size];
+        }
+
+        int index = 0;
+        state[index++] = won ? 1 : 0;
+        for (Robot robot : robots) {
+            state[index++] = robot.getCommandCursor();
+        }
+        for (Robot robot : robots) {
+            state[index++] = pack(robot);
+        }
+        for (MovableBox movableBox : movableBoxes) {
+            state[index++] = pack(movableBox);
+        }
+
+        times[count] = time;
+        states[count] = state;
+        count++;
+    }
+
+    /**
+     * Restores every movable to the state in the given keyframe
+     *
+     * @param keyframe     index of the keyframe
+     * @param robots       robots on the board
+     * @param movableBoxes movable boxes on the board
+     * @return if the game had been won at the time of the keyframe
+     */
+    public boolean restore(int keyframe, ArrayList<Robot> robots, ArrayList<MovableBox> movableBoxes) {
+        int[] state = states[keyframe];
+
+        int index = 0;
+        boolean won = state[index++] == 1;
+        for (Robot robot : robots) {
+            robot.setCommandCursor(state[index++]);
+        }
+        for (Robot robot : robots) {
+            unpack(robot, state[index++]);
+        }
+        for (MovableBox movableBox : movableBoxes) {
+            unpack(movableBox, state[index++]);
+        }
+
+        return won;
+    }
+
+    /**
+     * Finds the latest keyframe at or before the given time
+     *
+     * @param time time to search for
+     * @return index of the keyframe, or -1 if there is none
+     */
+    public int find(long time) {
+        int low = 0;
+        int high = count - 1;
+        int found = -1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] <= time) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Removes every keyframe after the given time, as they no longer match what will happen
+     *
+     * @param time time after which keyframes are removed
+     */
+    public void truncateAfter(long time) {
+        count = find(time) + 1;
+    }
+
+    /**
+     * @param keyframe index of the keyframe
+     * @return time of the keyframe
+     */
+    public long getTime(int keyframe) {
+        return times[keyframe];
+    }
+
+    /**
+     * @return time of the latest keyframe, or -1 if there is none
+     */
+    public long getLastTime() {
+        return count == 0 ? -1 : times[count - 1];
+    }
+
+    /**
+     * Packs the position, direction and visibility of a movable into a single int
+     *
+     * @param movable movable to pack
+     * @return packed state
+     */
+    private static int pack(Movable movable) {
+        return (movable.getX() << X_SHIFT) | (movable.getY() << Y_SHIFT) | (movable.getDirection() << DIRECTION_SHIFT) | (movable.isVisible() ? 1 : 0);
+    }
+
+    /**
+     * Restores a movable from its packed state
+     *
+     * @param movable movable to restore
+     * @param state   packed state
+     */
+    private static void unpack(Movable movable, int state) {
+        movable.restore(state >>> X_SHIFT, (state >>> Y_SHIFT) & POSITION_MASK, (state >>> DIRECTION_SHIFT) & DIRECTION_MASK, (state & 1) == 1);
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Layout of a packed movable: 12 bits each for x and y, 3 bits for the direction and 1 bit for visibility
+    private static final int X_SHIFT = 20;
+    private static final int Y_SHIFT = 8;
+    private static final int DIRECTION_SHIFT = 1;
+    private static final int POSITION_MASK = 0xFFF;
+    private static final int DIRECTION_MASK = 0x7;
+
+    private static final String LOG_TAG = "KeyframeLog";
+}
@@ -0,0 +1,147 @@
+package com.piguy.Temporal_Bot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size histogram of latencies in nanoseconds. Buckets are linear within each power of two and double in width from one power of two to the next, so every recorded value is kept to within about 6% without storing the values themselves. Recording never allocates or locks, so it is cheap enough to do on every frame. Readers take a best-effort view that may miss latencies recorded while they read
+ *
+ * @author Alex Vanyo
+ */
+public class LatencyHistogram {
+
+    private final String name;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong max;
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+
+        counts = new AtomicLongArray(BUCKET_COUNT);
+        count = new AtomicLong();
+        max = new AtomicLong();
+    }
+
+    /**
+     * Records one latency
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        counts.incrementAndGet(getBucket(Math.min(nanos, MAX_VALUE)));
+        count.incrementAndGet();
+
+        long currentMax = max.get();
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Finds the latency that the given percent of recorded latencies are at or below. The result is the top of the bucket it falls in, so it errs on the slow side
+     *
+     * @param percentile percent of recorded latencies, from 0 to 100
+     * @return latency in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        // Totals the buckets rather than reading the count, so the target is consistent with the buckets walked below
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long maxValue = max.get();
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return i == BUCKET_COUNT - 1 ? maxValue : Math.min(getBucketEnd(i) - 1, maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Clears every recorded latency. A latency recorded while this runs may be partly kept
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        max.set(0);
+    }
+
+    /**
+     * @param nanos latency in nanoseconds, no greater than MAX_VALUE
+     * @return index of the bucket the latency is counted in
+     */
+    private static int getBucket(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) nanos;
+        }
+
+        // The highest set bit picks the power of two, and the bits below it pick the linear bucket within it
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((nanos >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * @param bucket index of a bucket
+     * @return first latency past the end of the bucket
+     */
+    private static long getBucketEnd(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket + 1;
+        }
+
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long start = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+        return start + (1L << shift);
+    }
+
+    /**
+     * @return name of what this histogram measures
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of latencies recorded
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return longest latency recorded in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Number of linear buckets within each power of two, as a power of two
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Longest latency that gets its own bucket, a little over a minute. Longer latencies are counted in the last bucket, but still show up in the max
+     */
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    private static final int BUCKET_COUNT = getBucket(MAX_VALUE) + 1;
+}
@@ -0,0 +1,81 @@
+package com.piguy.Temporal_Bot;
+
+import android.util.Log;
+
+/**
+ * Latency histograms shared by the whole game, so that the game loop, the board and the activity can all record into them and the activity can dump them when the game is paused
+ *
+ * @author Alex Vanyo
+ */
+public class LatencyStats {
+
+    /**
+     * Time the game loop spends drawing a frame, from updating the board to posting the canvas
+     */
+    public static final LatencyHistogram FRAME = new LatencyHistogram("frame");
+
+    /**
+     * Time spent advancing the simulation in each frame
+     */
+    public static final LatencyHistogram TICK = new LatencyHistogram("tick");
+
+    /**
+     * Time the game loop waits for the board before it can advance the simulation
+     */
+    public static final LatencyHistogram LOCK_WAIT = new LatencyHistogram("lock wait");
+
+    /**
+     * Time from the end of a swipe to the move being applied to the robot
+     */
+    public static final LatencyHistogram INPUT = new LatencyHistogram("input");
+
+    /**
+     * Time spent drawing the board's bitmaps when the surface changes
+     */
+    public static final LatencyHistogram BITMAPS = new LatencyHistogram("bitmaps");
+
+    private static final LatencyHistogram[] HISTOGRAMS = {FRAME, TICK, LOCK_WAIT, INPUT, BITMAPS};
+
+    /**
+     * @return every latency histogram, in the order they are shown
+     */
+    public static LatencyHistogram[] getHistograms() {
+        return HISTOGRAMS;
+    }
+
+    /**
+     * @param histogram histogram to summarize
+     * @return the median, 90th and 99th percentiles and the max of the histogram in milliseconds
+     */
+    public static String getSummary(LatencyHistogram histogram) {
+        return histogram.getName() + ": p50 " + formatMillis(histogram.getValueAtPercentile(50))
+                + " p90 " + formatMillis(histogram.getValueAtPercentile(90))
+                + " p99 " + formatMillis(histogram.getValueAtPercentile(99))
+                + " max " + formatMillis(histogram.getMax()) + " ms";
+    }
+
+    /**
+     * Logs a summary of every histogram that has recorded something, then clears them all so the next dump only covers what happened after this one
+     *
+     * @param label what the latencies were recorded during, such as the level that was being played
+     */
+    public static void dump(String label) {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            if (histogram.getCount() > 0) {
+                Log.i(LOG_TAG, label + " " + getSummary(histogram) + " (" + histogram.getCount() + " samples)");
+            }
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @param nanos time in nanoseconds
+     * @return the time in milliseconds, to one decimal place
+     */
+    private static String formatMillis(long nanos) {
+        long tenths = (nanos + 50000) / 100000;
+        return (tenths / 10) + "." + (tenths % 10);
+    }
+
+    private static final String LOG_TAG = "LatencyStats";
+}
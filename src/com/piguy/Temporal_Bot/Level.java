@@ -64,6 +64,13 @@ public class Level implements Parcelable {
         }
     };
 
+    /**
+     * @param score saved score for this level, which replaces the current one
+     */
+    public void setScore(Score score) {
+        this.score = score;
+    }
+
     /**
      * Refresh the score for this level
      *
@@ -146,6 +146,16 @@ public class LevelButton extends LinearLayout {
     public void updateViewUI() {
         levelName.setText(level.getName());
 
+        levelThumbnail.setLevel(level);
+        levelThumbnail.invalidate();
+
+        updateScoreUI();
+    }
+
+    /**
+     * Updates only the parts of the button's ui that show the score, leaving the thumbnail alone
+     */
+    public void updateScoreUI() {
         if (level.getScore().getCompleted()) {
             completedImageView.setImageDrawable(getResources().getDrawable(R.drawable.star_complete));
 
@@ -157,9 +167,6 @@ public class LevelButton extends LinearLayout {
             }
         }
 
-        levelThumbnail.setLevel(level);
-        levelThumbnail.invalidate();
-
         textCompleted.setText(level.getScore().getCompleted() ? getResources().getText(R.string.text_completed) : getResources().getText(R.string.text_incomplete));
         textCompleted.setTextColor(level.getScore().getCompleted() ? getResources().getColor(R.color.text_completed) : getResources().getColor(R.color.text_incomplete));
         textTime.setText("" + (level.getScore().getCompleted() ? Score.getTimeMinSec(level.getScore().getTime()) : getResources().getText(R.string.text_default_time)));
@@ -171,12 +178,14 @@ public class LevelButton extends LinearLayout {
     }
 
     /**
-     * Updates the button with new level information
+     * Updates the button with a newly saved score for its level, without redrawing the thumbnail
+     *
+     * @param score saved score for the level
      */
-    public void updateLevel() {
-        LevelDatabaseHelper levelDatabaseHelper = new LevelDatabaseHelper(getContext());
+    public void updateScore(Score score) {
+        level.setScore(score);
 
-        updateViewWithArguments(levelDatabaseHelper.getLevel(level.getID()));
+        updateScoreUI();
     }
 
     /**
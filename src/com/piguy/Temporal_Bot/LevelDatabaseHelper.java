@@ -1,154 +1,306 @@
 package com.piguy.Temporal_Bot;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
+import android.util.SparseArray;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Manager for the level database and score database
+ * Manager for the level pack and score database
  *
  * @author Alex Vanyo
  */
-public class LevelDatabaseHelper extends SQLiteOpenHelper {
+public class LevelDatabaseHelper {
 
-    private static final int DATABASE_VERSION = 1;
-    private static final String DATABASE_NAME = "levels";
-    private static final String TABLE_LEVELS = "levels";
+    private static final String LEVEL_PACK_NAME = "levels.pack";
 
-    private static final String KEY_ID = "_id";
-    private static final String KEY_LEVEL_STRING = "level_string";
-    private static final String KEY_NAME = "name";
-    private static final String KEY_TARGET_TIME = "target_time";
-    private static final String KEY_TARGET_ROBOTS = "target_robots";
-    private static final String KEY_INSTRUCTION = "instruction";
+    // Name of the SQLite levels database that older versions copied out of the APK every time it was opened
+    private static final String LEGACY_DATABASE_NAME = "levels";
+
+    // The level pack and score database are opened once and shared by every helper for the life of the process
+    private static LevelPack sharedLevelPack;
+    private static ScoresDatabaseHelper sharedScoresHelper;
+    private static ScoreWriteQueue sharedScoreQueue;
+
+    private static final List<ScoreChangeListener> scoreChangeListeners = new CopyOnWriteArrayList<ScoreChangeListener>();
 
     private final Context context;
 
     public LevelDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * @return the shared level pack, opening it the first time it is needed
+     */
+    private LevelPack getLevelPack() {
+        synchronized (LevelDatabaseHelper.class) {
+            if (sharedLevelPack == null) {
+                try {
+                    sharedLevelPack = openLevelPack();
+                } catch (IOException e) {
+                    throw new Error("Unable to open level pack", e);
+                }
+
+                // Removes the level database left behind by older versions
+                if (context.getDatabasePath(LEGACY_DATABASE_NAME).exists()) {
+                    context.deleteDatabase(LEGACY_DATABASE_NAME);
+                }
+            }
+
+            return sharedLevelPack;
+        }
+    }
+
+    /**
+     * @return the shared score database, opening it the first time it is needed
+     */
+    private ScoresDatabaseHelper getScoresHelper() {
+        synchronized (LevelDatabaseHelper.class) {
+            if (sharedScoresHelper == null) {
+                sharedScoresHelper = new ScoresDatabaseHelper(context);
+            }
 
-        this.context = context;
+            return sharedScoresHelper;
+        }
     }
 
     /**
-     * Copies the database from the packaged database to the internal database
+     * @return the shared queue that writes scores in the background, starting it the first time it is needed
+     */
+    private ScoreWriteQueue getScoreQueue() {
+        synchronized (LevelDatabaseHelper.class) {
+            if (sharedScoreQueue == null) {
+                final ScoresDatabaseHelper scoresHelper = getScoresHelper();
+                sharedScoreQueue = new ScoreWriteQueue(new ScoreWriteQueue.Writer() {
+                    @Override
+                    public void writeScores(SparseArray<Score> scores) {
+                        scoresHelper.updateScores(scores);
+
+                        for (int i = 0; i < scores.size(); i++) {
+                            for (ScoreChangeListener listener : scoreChangeListeners) {
+                                listener.scoreChanged(scores.keyAt(i), scores.valueAt(i));
+                            }
+                        }
+                    }
+                });
+            }
+
+            return sharedScoreQueue;
+        }
+    }
+
+    /**
+     * Opens the packaged level pack by memory-mapping it straight from the APK. Assets that were compressed when packaging cannot be mapped, so those are copied to internal storage and mapped from there. The copy is only replaced when the header of the packaged pack, which holds its version and checksum, no longer matches
      *
-     * @param path path to copy to
+     * @return the opened level pack
      * @throws IOException
      */
-    private void copyDataBase(String path) throws IOException {
+    private LevelPack openLevelPack() throws IOException {
+        try {
+            AssetFileDescriptor descriptor = context.getAssets().openFd(LEVEL_PACK_NAME);
+            try {
+                FileChannel channel = descriptor.createInputStream().getChannel();
+                LevelPack levelPack = new LevelPack(channel.map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength()));
+                channel.close();
+                return levelPack;
+            } finally {
+                descriptor.close();
+            }
+        } catch (FileNotFoundException e) {
+            Log.d(LOG_TAG, "Level pack is compressed, mapping a copy instead");
+        }
 
-        InputStream myInput = context.getAssets().open(DATABASE_NAME);
-        OutputStream myOutput = new FileOutputStream(path);
+        File copy = new File(context.getFilesDir(), LEVEL_PACK_NAME);
 
-        byte[] buffer = new byte[1024];
-        int length;
-        while ((length = myInput.read(buffer)) > 0) {
-            myOutput.write(buffer, 0, length);
+        byte[] packagedHeader = new byte[LevelPack.HEADER_SIZE];
+        InputStream packagedInput = context.getAssets().open(LEVEL_PACK_NAME);
+        readFully(packagedInput, packagedHeader);
+        packagedInput.close();
+
+        byte[] copyHeader = new byte[LevelPack.HEADER_SIZE];
+        if (copy.length() >= LevelPack.HEADER_SIZE) {
+            InputStream copyInput = new FileInputStream(copy);
+            readFully(copyInput, copyHeader);
+            copyInput.close();
         }
 
-        myOutput.flush();
-        myOutput.close();
-        myInput.close();
+        if (!Arrays.equals(packagedHeader, copyHeader)) {
+            copyAsset(LEVEL_PACK_NAME, copy);
+        }
 
+        RandomAccessFile file = new RandomAccessFile(copy, "r");
+        try {
+            return new LevelPack(file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()));
+        } finally {
+            file.close();
+        }
     }
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        // Always drops and loads the level database from the packaged one
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_LEVELS + ";");
-        db.execSQL("CREATE TABLE " + TABLE_LEVELS + "(" + KEY_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " + KEY_LEVEL_STRING + " TEXT, " + KEY_NAME + " TEXT, " + KEY_TARGET_TIME + " INTEGER, " + KEY_TARGET_ROBOTS + " INTEGER, " + KEY_INSTRUCTION + "TEXT);");
+    /**
+     * Copies a packaged asset to a file, writing a temporary file first so that an interrupted copy is never mistaken for a complete one
+     *
+     * @param name        name of the asset
+     * @param destination file to copy to
+     * @throws IOException
+     */
+    private void copyAsset(String name, File destination) throws IOException {
+        File temporary = new File(destination.getPath() + ".tmp");
 
-        try {
-            copyDataBase(db.getPath());
-        } catch (IOException e) {
-            throw new Error("Unable to create database");
+        InputStream input = context.getAssets().open(name);
+        OutputStream output = new FileOutputStream(temporary);
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length;
+        while ((length = input.read(buffer)) > 0) {
+            output.write(buffer, 0, length);
         }
-    }
 
-    @Override
-    public void onOpen(SQLiteDatabase db) {
-        onCreate(db);
+        output.close();
+        input.close();
+
+        if (!temporary.renameTo(destination)) {
+            throw new IOException("Unable to replace " + destination);
+        }
     }
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        onCreate(db);
+    /**
+     * Fills the buffer from the stream
+     *
+     * @param input  stream to read from
+     * @param buffer buffer to fill
+     * @throws IOException if the stream ends before the buffer is full
+     */
+    private static void readFully(InputStream input, byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            int length = input.read(buffer, read, buffer.length - read);
+            if (length < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+            read += length;
+        }
     }
 
     /**
-     * Updates the score for the passed level
+     * Queues the score of the passed level to be saved in the background. Returns without waiting for the disk, and the queued score is returned by reads straight away
      *
      * @param level level that needs a score to be updated
      */
     public void updateScore(Level level) {
-        new ScoresDatabaseHelper(context).updateScore(level.getScore());
+        getScoreQueue().enqueue(level.getScore());
     }
 
     /**
-     * Gets the level for the passed id
-     *
-     * @param id id for the wanted level
-     * @return level with that id
+     * @param listener listener that is told about each score once it has been saved
      */
-    public Level getLevel(int id) {
+    public static void addScoreChangeListener(ScoreChangeListener listener) {
+        scoreChangeListeners.add(listener);
+    }
 
-        Cursor levelCursor = this.getReadableDatabase().rawQuery("SELECT * FROM " + TABLE_LEVELS + " WHERE " + KEY_ID + " = '" + id + "';", null);
+    /**
+     * @param listener listener that should no longer be told about saved scores
+     */
+    public static void removeScoreChangeListener(ScoreChangeListener listener) {
+        scoreChangeListeners.remove(listener);
+    }
 
-        Score score = new ScoresDatabaseHelper(context).getScore(id);
+    /**
+     * Blocks until every score queued so far has been saved
+     */
+    public void flushScores() {
+        getScoreQueue().flush();
+    }
 
-        Level returnLevel = null;
+    /**
+     * Gets the score for a level, preferring a queued score that has not been saved yet
+     *
+     * @param id    id of the level
+     * @param saved saved score for the level, or null if there is none
+     * @return the latest score for the level
+     */
+    private Score getLatestScore(int id, Score saved) {
+        Score queued = getScoreQueue().getQueued(id);
+        if (queued != null) {
+            return queued;
+        }
 
-        if (levelCursor != null && levelCursor.moveToFirst()) {
-            returnLevel = new Level(levelCursor.getInt(0), levelCursor.getString(1), levelCursor.getString(2), levelCursor.getLong(3), levelCursor.getInt(4), levelCursor.getString(5), score);
+        return saved != null ? saved : new Score(id);
+    }
 
-            levelCursor.close();
-        }
+    /**
+     * Gets the level for the passed id
+     *
+     * @param id id for the wanted level
+     * @return level with that id, or null if there is none
+     */
+    public Level getLevel(int id) {
+        LevelPack pack = getLevelPack();
 
-        this.getReadableDatabase().close();
+        int index = pack.findLevel(id);
+        if (index == -1) {
+            return null;
+        }
 
-        return returnLevel;
+        return readLevel(pack, index, getLatestScore(id, getScoresHelper().getScore(id)));
     }
 
     /**
-     * Gets all levels from the database
+     * Gets all levels from the level pack
      *
      * @return all levels
      */
     public ArrayList<Level> getAllLevels() {
-        ArrayList<Level> levelList = new ArrayList<Level>();
+        LevelPack pack = getLevelPack();
 
-        Cursor levelCursor = this.getReadableDatabase().rawQuery("SELECT * FROM " + TABLE_LEVELS + ";", null);
-        ScoresDatabaseHelper scoresHelper = new ScoresDatabaseHelper(context);
+        // Loads every score in one query, and merges them with the levels in memory
+        SparseArray<Score> scores = getScoresHelper().getAllScores();
 
-        if (levelCursor.moveToFirst()) {
-            do {
-                Level level = new Level(levelCursor.getInt(0), levelCursor.getString(1), levelCursor.getString(2), levelCursor.getLong(3), levelCursor.getInt(4), levelCursor.getString(5), scoresHelper.getScore(levelCursor.getInt(0)));
+        ArrayList<Level> levelList = new ArrayList<Level>(pack.getLevelCount());
+        for (int i = 0; i < pack.getLevelCount(); i++) {
+            int id = pack.getID(i);
 
-                levelList.add(level);
-            } while (levelCursor.moveToNext());
+            levelList.add(readLevel(pack, i, getLatestScore(id, scores.get(id))));
         }
 
-        this.getReadableDatabase().close();
-        levelCursor.close();
-
         return levelList;
     }
 
+    /**
+     * @param pack  level pack to read from
+     * @param index index of the level in the pack
+     * @param score score for the level
+     * @return the level at the index
+     */
+    private static Level readLevel(LevelPack pack, int index, Score score) {
+        return new Level(pack.getID(index), pack.getLevelString(index), pack.getName(index), pack.getTargetTime(index), pack.getTargetRobots(index), pack.getInstruction(index), score);
+    }
+
     /**
      * Manager for the score database
      */
-    private class ScoresDatabaseHelper extends SQLiteOpenHelper {
+    private static class ScoresDatabaseHelper extends SQLiteOpenHelper {
 
-        private static final int DATABASE_VERSION = 1;
+        // Version 2 made the level id the primary key
+        private static final int DATABASE_VERSION = 2;
         private static final String DATABASE_NAME = "scores";
         private static final String TABLE_SCORES = "scores";
 
@@ -157,33 +309,80 @@ public class LevelDatabaseHelper extends SQLiteOpenHelper {
         private static final String KEY_TIME = "time";
         private static final String KEY_ROBOTS = "robots";
 
+        private static final String COLUMNS = KEY_ID + ", " + KEY_COMPLETED + ", " + KEY_TIME + ", " + KEY_ROBOTS;
+
+        // Constant SQL, so that the database's cache of compiled statements is reused for each query
+        private static final String SQL_SELECT_SCORE = "SELECT " + COLUMNS + " FROM " + TABLE_SCORES + " WHERE " + KEY_ID + " = ?;";
+        private static final String SQL_SELECT_ALL_SCORES = "SELECT " + COLUMNS + " FROM " + TABLE_SCORES + ";";
+        private static final String SQL_UPSERT_SCORE = "INSERT OR REPLACE INTO " + TABLE_SCORES + " (" + COLUMNS + ") VALUES(?, ?, ?, ?);";
+
+        private SQLiteStatement upsertStatement;
+
         public ScoresDatabaseHelper(Context context) {
             super(context, DATABASE_NAME, null, DATABASE_VERSION);
         }
 
         @Override
         public void onCreate(SQLiteDatabase db) {
-            db.execSQL("CREATE TABLE " + TABLE_SCORES + "(" + KEY_ID + " INTEGER, " + KEY_COMPLETED + " INTEGER, " + KEY_TIME + " INTEGER, " + KEY_ROBOTS + " INTEGER);");
+            db.execSQL(createTable(TABLE_SCORES));
         }
 
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // Runs inside the upgrade transaction, so a failed migration leaves the old table alone
+            if (oldVersion < 2) {
+                // Copies the scores into a table keyed by level id. Duplicate rows are dropped, keeping the first row for each id as reads always did
+                String keyedTable = TABLE_SCORES + "_keyed";
+                db.execSQL(createTable(keyedTable));
+                db.execSQL("INSERT OR IGNORE INTO " + keyedTable + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM " + TABLE_SCORES + " ORDER BY rowid;");
+                db.execSQL("DROP TABLE " + TABLE_SCORES + ";");
+                db.execSQL("ALTER TABLE " + keyedTable + " RENAME TO " + TABLE_SCORES + ";");
+            }
         }
 
         /**
-         * Updates a score by either modifying the current one or adding a new one
+         * @param name name of the table
+         * @return SQL that creates a scores table keyed by level id
+         */
+        private static String createTable(String name) {
+            return "CREATE TABLE " + name + "(" + KEY_ID + " INTEGER PRIMARY KEY, " + KEY_COMPLETED + " INTEGER, " + KEY_TIME + " INTEGER, " + KEY_ROBOTS + " INTEGER);";
+        }
+
+        /**
+         * Saves a score, replacing any saved score for the same level, through a statement that is compiled once
          *
          * @param score new score that will be put into the database
          */
-        public void updateScore(Score score) {
-            if (getScore(score.getID()).getCompleted()) {
-                this.getWritableDatabase().execSQL("UPDATE " + TABLE_SCORES + " SET " + KEY_COMPLETED + "='" + (score.getCompleted() ? 1 : 0) + "', " + KEY_TIME + "='" + score.getTime() + "', " + KEY_ROBOTS + "='" + score.getRobots() + "' WHERE " + KEY_ID + "='" + score.getID() + "';");
-            } else {
-                this.getWritableDatabase().execSQL("INSERT INTO " + TABLE_SCORES + " VALUES(" + score.getID() + ", " + (score.getCompleted() ? 1 : 0) + ", " + score.getTime() + ", " + score.getRobots() + ");");
-
+        public synchronized void updateScore(Score score) {
+            if (upsertStatement == null) {
+                upsertStatement = this.getWritableDatabase().compileStatement(SQL_UPSERT_SCORE);
             }
 
-            this.getWritableDatabase().close();
+            upsertStatement.bindLong(1, score.getID());
+            upsertStatement.bindLong(2, score.getCompleted() ? 1 : 0);
+            upsertStatement.bindLong(3, score.getTime());
+            upsertStatement.bindLong(4, score.getRobots());
+            upsertStatement.executeInsert();
+            upsertStatement.clearBindings();
+        }
+
+        /**
+         * Saves a batch of scores in a single transaction
+         *
+         * @param scores new scores by level id
+         */
+        public synchronized void updateScores(SparseArray<Score> scores) {
+            SQLiteDatabase db = this.getWritableDatabase();
+
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < scores.size(); i++) {
+                    updateScore(scores.valueAt(i));
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
         }
 
         /**
@@ -195,18 +394,42 @@ public class LevelDatabaseHelper extends SQLiteOpenHelper {
         public Score getScore(int id) {
             Score returnScore = new Score(id);
 
-            Cursor cursor = this.getReadableDatabase().rawQuery("SELECT * FROM " + TABLE_SCORES + " WHERE " + KEY_ID + " = '" + id + "';", null);
+            Cursor cursor = this.getReadableDatabase().rawQuery(SQL_SELECT_SCORE, new String[]{String.valueOf(id)});
 
-            if (cursor != null && cursor.moveToFirst()) {
-                returnScore = new Score(cursor.getInt(0), cursor.getInt(1) == 1, cursor.getLong(2), cursor.getInt(3));
+            if (cursor != null) {
+                if (cursor.moveToFirst()) {
+                    returnScore = new Score(cursor.getInt(0), cursor.getInt(1) == 1, cursor.getLong(2), cursor.getInt(3));
+                }
 
                 cursor.close();
             }
 
-            this.getReadableDatabase().close();
             return returnScore;
         }
+
+        /**
+         * Gets every saved score with a single query
+         *
+         * @return saved scores by level id
+         */
+        public SparseArray<Score> getAllScores() {
+            SparseArray<Score> scores = new SparseArray<Score>();
+
+            Cursor cursor = this.getReadableDatabase().rawQuery(SQL_SELECT_ALL_SCORES, null);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    scores.put(cursor.getInt(0), new Score(cursor.getInt(0), cursor.getInt(1) == 1, cursor.getLong(2), cursor.getInt(3)));
+                }
+
+                cursor.close();
+            }
+
+            return scores;
+        }
     }
 
+    private static final int BUFFER_SIZE = 8192;
+
     private static final String LOG_TAG = "LevelDatabaseHelper";
 }
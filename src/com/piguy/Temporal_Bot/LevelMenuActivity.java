@@ -12,7 +12,7 @@ import java.util.ArrayList;
  *
  * @author Alex Vanyo
  */
-public class LevelMenuActivity extends Activity {
+public class LevelMenuActivity extends Activity implements ScoreChangeListener {
 
     public static final String INTENT_EXTRA_LEVEL = "INTENT_EXTRA_LEVEL";
 
@@ -32,6 +32,8 @@ public class LevelMenuActivity extends Activity {
         levelButtonsLayout = (LinearLayout) this.findViewById(R.id.level_buttons_layout);
 
         addLevelButtons();
+
+        LevelDatabaseHelper.addScoreChangeListener(this);
     }
 
     @Override
@@ -56,12 +58,18 @@ public class LevelMenuActivity extends Activity {
         mediaPlayer.release();
     }
 
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        LevelDatabaseHelper.removeScoreChangeListener(this);
+    }
+
     @Override
     public void onResume() {
         super.onResume();
 
         mediaPlayer.start();
-        updateLevelButtons();
     }
 
     /**
@@ -75,8 +83,6 @@ public class LevelMenuActivity extends Activity {
 
                 final ArrayList<Level> levels = levelDatabaseHelper.getAllLevels();
 
-                levelDatabaseHelper.close();
-
                 for (int i = 0; i < levels.size(); i++) {
 
                     final int levelIndex = i;
@@ -108,28 +114,26 @@ public class LevelMenuActivity extends Activity {
     }
 
     /**
-     * Updates the level buttons if there has been a change in the levels or scores
+     * Updates only the level button for the level whose score was saved
+     *
+     * @param id    id of the level
+     * @param score new saved score for the level
      */
-    private void updateLevelButtons() {
-
-        // TODO: Only update the level that changed
-        Runnable runnable = new Runnable() {
+    @Override
+    public void scoreChanged(final int id, final Score score) {
+        runOnUiThread(new Runnable() {
             @Override
             public void run() {
                 for (int i = 0; i < levelButtonsLayout.getChildCount(); i++) {
-                    final int levelIndex = i;
+                    LevelButton levelButton = (LevelButton) levelButtonsLayout.getChildAt(i);
 
-                    ((LevelButton) levelButtonsLayout.getChildAt(levelIndex)).updateLevel();
-                    runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            ((LevelButton) levelButtonsLayout.getChildAt(levelIndex)).updateViewUI();
-                        }
-                    });
+                    if (levelButton.getLevelID() == id) {
+                        levelButton.updateScore(score);
+                        return;
+                    }
                 }
             }
-        };
-        new Thread(runnable).start();
+        });
     }
 
     /**
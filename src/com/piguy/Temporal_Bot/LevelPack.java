@@ -0,0 +1,181 @@
+package com.piguy.Temporal_Bot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Reader for the binary level pack. The pack starts with a header and an index of every level sorted by id, followed by one record per level. Records are only decoded when asked for, so a memory-mapped pack loads a single level without touching the rest of the file.
+ * <p/>
+ * Layout, in big-endian order:
+ * <pre>
+ * header: int magic, int version, int level count, int CRC32 of everything after the header
+ * index:  for each level, int id, int record offset, int record length
+ * record: long target time, int target robots, then the name, instruction and level string
+ * string: unsigned short byte length (NULL_STRING for null), then that many UTF-8 bytes
+ * </pre>
+ *
+ * @author Alex Vanyo
+ */
+public class LevelPack {
+
+    private final ByteBuffer buffer;
+    private final int levelCount;
+    private final int checksum;
+
+    /**
+     * @param buffer contents of a level pack, which will not be changed
+     * @throws IllegalArgumentException if the buffer does not hold a level pack of this version
+     */
+    public LevelPack(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a level pack");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported level pack version " + buffer.getInt(4));
+        }
+
+        levelCount = buffer.getInt(8);
+        checksum = buffer.getInt(12);
+    }
+
+    /**
+     * @return number of levels in the pack
+     */
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * @return CRC32 of the index and records, which changes whenever any level changes
+     */
+    public int getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Finds a level by binary searching the index
+     *
+     * @param id id of the wanted level
+     * @return index of the level, or -1 if the pack has no level with that id
+     */
+    public int findLevel(int id) {
+        int low = 0;
+        int high = levelCount - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleID = getID(middle);
+            if (middleID < id) {
+                low = middle + 1;
+            } else if (middleID > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param index index of the level
+     * @return id of the level
+     */
+    public int getID(int index) {
+        return buffer.getInt(HEADER_SIZE + index * INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * @param index index of the level
+     * @return target time of the level
+     */
+    public long getTargetTime(int index) {
+        return buffer.getLong(getRecordOffset(index));
+    }
+
+    /**
+     * @param index index of the level
+     * @return target number of robots of the level
+     */
+    public int getTargetRobots(int index) {
+        return buffer.getInt(getRecordOffset(index) + 8);
+    }
+
+    /**
+     * @param index index of the level
+     * @return name of the level
+     */
+    public String getName(int index) {
+        return readString(getRecordOffset(index) + RECORD_FIXED_SIZE);
+    }
+
+    /**
+     * @param index index of the level
+     * @return instruction for the level, or null if it has none
+     */
+    public String getInstruction(int index) {
+        return readString(skipString(getRecordOffset(index) + RECORD_FIXED_SIZE));
+    }
+
+    /**
+     * @param index index of the level
+     * @return level string of the level, in the format given by Level.getLevelString()
+     */
+    public String getLevelString(int index) {
+        return readString(skipString(skipString(getRecordOffset(index) + RECORD_FIXED_SIZE)));
+    }
+
+    /**
+     * @param index index of the level
+     * @return offset of the record for the level from the start of the pack
+     */
+    private int getRecordOffset(int index) {
+        return buffer.getInt(HEADER_SIZE + index * INDEX_ENTRY_SIZE + 4);
+    }
+
+    /**
+     * @param offset offset of a string from the start of the pack
+     * @return offset just after the string
+     */
+    private int skipString(int offset) {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        return offset + 2 + (length == NULL_STRING ? 0 : length);
+    }
+
+    /**
+     * @param offset offset of a string from the start of the pack
+     * @return the decoded string, or null
+     */
+    private String readString(int offset) {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+
+        // Reads through a duplicate so that concurrent readers never share a position
+        byte[] bytes = new byte[length];
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(offset + 2);
+        reader.get(bytes);
+
+        return new String(bytes, UTF_8);
+    }
+
+    public static final int MAGIC = 0x54424C50;
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 16;
+    public static final int INDEX_ENTRY_SIZE = 12;
+    public static final int RECORD_FIXED_SIZE = 12;
+
+    /**
+     * Length written in place of a string's length when the string is null
+     */
+    public static final int NULL_STRING = 0xFFFF;
+
+    public static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String LOG_TAG = "LevelPack";
+}
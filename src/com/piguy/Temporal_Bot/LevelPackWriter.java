@@ -0,0 +1,134 @@
+package com.piguy.Temporal_Bot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+/**
+ * Builds a binary level pack in the layout read by LevelPack. Used by the tools that convert levels into a pack, so it has no Android dependencies.
+ *
+ * @author Alex Vanyo
+ */
+public class LevelPackWriter {
+
+    private final ArrayList<Entry> entries;
+
+    public LevelPackWriter() {
+        entries = new ArrayList<Entry>();
+    }
+
+    /**
+     * Adds a level to the pack
+     *
+     * @param id           id of the level, which must be unique in the pack
+     * @param levelString  level string of the level
+     * @param name         name of the level
+     * @param targetTime   target time of the level
+     * @param targetRobots target number of robots of the level
+     * @param instruction  instruction for the level, or null if it has none
+     * @throws IOException if a string is too long for the pack
+     */
+    public void addLevel(int id, String levelString, String name, long targetTime, int targetRobots, String instruction) throws IOException {
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(recordBytes);
+
+        record.writeLong(targetTime);
+        record.writeInt(targetRobots);
+        writeString(record, name);
+        writeString(record, instruction);
+        writeString(record, levelString);
+        record.flush();
+
+        entries.add(new Entry(id, recordBytes.toByteArray()));
+    }
+
+    /**
+     * Writes the pack, with the index sorted by level id
+     *
+     * @param out stream to write to, which is left open
+     * @throws IOException if the stream cannot be written, or two levels share an id
+     */
+    public void write(OutputStream out) throws IOException {
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                return a.id < b.id ? -1 : (a.id == b.id ? 0 : 1);
+            }
+        });
+
+        // Builds everything after the header first, as the header holds its checksum
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        int offset = LevelPack.HEADER_SIZE + entries.size() * LevelPack.INDEX_ENTRY_SIZE;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (i > 0 && entries.get(i - 1).id == entry.id) {
+                throw new IOException("Duplicate level id " + entry.id);
+            }
+
+            body.writeInt(entry.id);
+            body.writeInt(offset);
+            body.writeInt(entry.record.length);
+            offset += entry.record.length;
+        }
+        for (Entry entry : entries) {
+            body.write(entry.record);
+        }
+        body.flush();
+
+        byte[] bodyArray = bodyBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bodyArray, 0, bodyArray.length);
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(LevelPack.MAGIC);
+        header.writeInt(LevelPack.VERSION);
+        header.writeInt(entries.size());
+        header.writeInt((int) crc.getValue());
+        header.write(bodyArray);
+        header.flush();
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes
+     *
+     * @param out    stream to write to
+     * @param string string to write, or null
+     * @throws IOException if the string is too long for the pack
+     */
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeShort(LevelPack.NULL_STRING);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(LevelPack.UTF_8);
+        if (bytes.length >= LevelPack.NULL_STRING) {
+            throw new IOException("String too long for a level pack: " + bytes.length + " bytes");
+        }
+
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * A level's id and its encoded record
+     */
+    private static class Entry {
+        private final int id;
+        private final byte[] record;
+
+        private Entry(int id, byte[] record) {
+            this.id = id;
+            this.record = record;
+        }
+    }
+
+    private static final String LOG_TAG = "LevelPackWriter";
+}
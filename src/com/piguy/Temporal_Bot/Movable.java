@@ -1,7 +1,5 @@
 package com.piguy.Temporal_Bot;
 
-import java.util.ArrayList;
-
 /**
  * Parent class for all movable objects in the game
  *
@@ -15,13 +13,11 @@ public class Movable {
     private int initDirection;
     private boolean initVisible;
 
-    // Variables that only matter graphically, and handle the animations and view positions
-    private float viewX;
-    private float viewY;
-    private float viewDirection;
-    private float originalViewDirection;
+    // Variables that only matter graphically. The last animation runs from the origin to the current position and direction, and the view position is worked out from these for any time
+    private int originX;
+    private int originY;
+    private float originViewDirection;
     private long timeStarted;
-    private float percentDone;
     private boolean animatingMove;
     private boolean animatingTurn;
 
@@ -42,9 +38,9 @@ public class Movable {
         this.direction = direction;
         this.visible = visible;
 
-        this.viewX = x;
-        this.viewY = y;
-        this.viewDirection = viewDirection;
+        this.originX = x;
+        this.originY = y;
+        this.originViewDirection = viewDirection;
         this.animatingMove = false;
         this.animatingTurn = false;
     }
@@ -53,13 +49,16 @@ public class Movable {
      * Attempts to move this movable based on the passed parameters. This function can be recursive, and calls other movables to se if they can move.
      *
      * @param direction           direction that the movable wants to move
-     * @param board               tile array denoting the current board
-     * @param movables            movable array denoting all of the current movables
+     * @param board               tile grid denoting the current board
+     * @param occupancy           grid of the visible movables on the board, which is kept up to date with this move
      * @param time                time at which the move was initiated for sake of animation
      * @param changeViewDirection should this move change the direction of the movable
      * @return whether or not this move was successful
      */
-    public boolean move(int direction, Tile[][] board, ArrayList<Movable> movables, long time, boolean changeViewDirection) {
+    public boolean move(int direction, TileGrid board, OccupancyGrid occupancy, long time, boolean changeViewDirection) {
+
+        // The direction drawn at the moment of this move, which any new animation starts from
+        float viewDirection = getViewDirection(time);
 
         this.direction = direction;
 
@@ -68,6 +67,7 @@ public class Movable {
         // Check to see if the direction is back in time
         if (direction == MOVE_BACK_IN_TIME) {
             visible = false;
+            occupancy.remove(this, x, y);
 
             moved = true;
         } else {
@@ -76,14 +76,13 @@ public class Movable {
 
             // Determine if the movable can move
             possibleMove:
-            if (!board[y + MOVE_ARRAY[direction][1]][x + MOVE_ARRAY[direction][0]].getID().equals(Tile.TILE_WALL)) {
-                for (Movable movable : movables) {
-                    // Move using the MOVE_ARRAY: a two dimensional array giving whether the x/y coordinate are +/-
-                    if (movable.isVisible() && movable.getX() == x + MOVE_ARRAY[direction][0] && movable.getY() == y + MOVE_ARRAY[direction][1]) {
-                        moved = movable.move(direction, board, movables, time, false);
-                        // Break from testing code as we know whether or not we can move now
-                        break possibleMove;
-                    }
+            if (!board.isWall(x + MOVE_ARRAY[direction][0], y + MOVE_ARRAY[direction][1])) {
+                // Move using the MOVE_ARRAY: a two dimensional array giving whether the x/y coordinate are +/-
+                Movable movable = occupancy.get(x + MOVE_ARRAY[direction][0], y + MOVE_ARRAY[direction][1]);
+                if (movable != null) {
+                    moved = movable.move(direction, board, occupancy, time, false);
+                    // Break from testing code as we know whether or not we can move now
+                    break possibleMove;
                 }
                 moved = true;
             }
@@ -92,7 +91,6 @@ public class Movable {
         // Update animation details based on whether the movable moved
         animatingTurn = changeViewDirection;
         if (animatingTurn) {
-            percentDone = 0;
             timeStarted = time;
 
             float tempDirection = direction - viewDirection;
@@ -101,24 +99,26 @@ public class Movable {
             } else if (tempDirection < -2) {
                 viewDirection -= 4;
             }
-            originalViewDirection = viewDirection;
         }
+        originViewDirection = viewDirection;
 
-        if (moved) {
-            viewX = x;
-            viewY = y;
+        originX = x;
+        originY = y;
 
+        if (moved) {
             animatingMove = true;
-            percentDone = 0;
             timeStarted = time;
 
             x += MOVE_ARRAY[direction][0];
             y += MOVE_ARRAY[direction][1];
 
+            // A movable that went back in time has already left the grid
+            if (visible) {
+                occupancy.move(this, x - MOVE_ARRAY[direction][0], y - MOVE_ARRAY[direction][1], x, y);
+            }
+
             return true;
         } else {
-            viewX = x;
-            viewY = y;
             animatingMove = false;
 
             return false;
@@ -126,30 +126,49 @@ public class Movable {
     }
 
     /**
-     * Update the movable for the purposes of animating it
+     * @param startTime time at which an animation started
+     * @param time      time to find the progress at
+     * @return how far through the animation is at the time, from 0 to 1
+     */
+    public static float getAnimationProgress(long startTime, double time) {
+        return (float) Math.max(0, Math.min(1, (time - startTime) / ANIMATION_LENGTH));
+    }
+
+    /**
+     * Finds where a movable is drawn along one axis
      *
-     * @param elapsedTime current time on the board
+     * @param origin        position the last move started from
+     * @param position      position the last move ended at
+     * @param animatingMove if the last move changed the position
+     * @param startTime     time at which the last move started
+     * @param time          time to find the view position at
+     * @return view position at the time
      */
-    public void update(long elapsedTime) {
-        long timeExisted = elapsedTime - timeStarted;
-        percentDone = (float) timeExisted / ANIMATION_LENGTH;
+    public static float getViewPosition(int origin, int position, boolean animatingMove, long startTime, double time) {
+        return animatingMove ? origin + (position - origin) * getAnimationProgress(startTime, time) : position;
+    }
 
-        if (percentDone >= 1) {
-            viewX = x;
-            viewY = y;
-            animatingMove = false;
+    /**
+     * Finds the direction a movable is drawn facing. A movable that was pushed keeps facing the way it was until its move finishes
+     *
+     * @param originViewDirection direction drawn when the last move started
+     * @param direction           direction of the last move
+     * @param animatingMove       if the last move changed the position
+     * @param animatingTurn       if the last move turned the movable
+     * @param startTime           time at which the last move started
+     * @param time                time to find the view direction at
+     * @return view direction at the time
+     */
+    public static float getViewDirection(float originViewDirection, int direction, boolean animatingMove, boolean animatingTurn, long startTime, double time) {
+        if (!animatingMove && !animatingTurn) {
+            return originViewDirection;
+        }
 
-            viewDirection = direction;
-            animatingTurn = false;
-        } else {
-            if (animatingMove) {
-                viewX = x - MOVE_ARRAY[direction][0] * (1 - percentDone);
-                viewY = y - MOVE_ARRAY[direction][1] * (1 - percentDone);
-            }
-            if (animatingTurn) {
-                viewDirection = originalViewDirection + (direction - originalViewDirection) * percentDone;
-            }
+        float progress = getAnimationProgress(startTime, time);
+        if (progress >= 1) {
+            return direction;
         }
+        return animatingTurn ? originViewDirection + (direction - originViewDirection) * progress : originViewDirection;
     }
 
     /**
@@ -161,9 +180,31 @@ public class Movable {
         direction = initDirection;
         visible = initVisible;
 
-        viewX = initX;
-        viewY = initY;
-        viewDirection = initDirection;
+        originX = initX;
+        originY = initY;
+        originViewDirection = initDirection;
+
+        animatingMove = false;
+        animatingTurn = false;
+    }
+
+    /**
+     * Restores the movable to a recorded state, without animating
+     *
+     * @param x         recorded x position
+     * @param y         recorded y position
+     * @param direction recorded direction
+     * @param visible   recorded visibility
+     */
+    public void restore(int x, int y, int direction, boolean visible) {
+        this.x = x;
+        this.y = y;
+        this.direction = direction;
+        this.visible = visible;
+
+        originX = x;
+        originY = y;
+        originViewDirection = direction;
 
         animatingMove = false;
         animatingTurn = false;
@@ -177,10 +218,18 @@ public class Movable {
     }
 
     /**
-     * @return current view x position
+     * @return x position the last move started from
+     */
+    public int getOriginX() {
+        return originX;
+    }
+
+    /**
+     * @param time time on the board
+     * @return view x position at the time
      */
-    public float getViewX() {
-        return viewX;
+    public float getViewX(double time) {
+        return getViewPosition(originX, x, animatingMove, timeStarted, time);
     }
 
     /**
@@ -198,10 +247,18 @@ public class Movable {
     }
 
     /**
-     * @return current view x position
+     * @return y position the last move started from
      */
-    public float getViewY() {
-        return viewY;
+    public int getOriginY() {
+        return originY;
+    }
+
+    /**
+     * @param time time on the board
+     * @return view y position at the time
+     */
+    public float getViewY(double time) {
+        return getViewPosition(originY, y, animatingMove, timeStarted, time);
     }
 
     /**
@@ -219,17 +276,47 @@ public class Movable {
     }
 
     /**
-     * @return view direction
+     * @return direction drawn when the last move started
+     */
+    public float getOriginViewDirection() {
+        return originViewDirection;
+    }
+
+    /**
+     * @param time time on the board
+     * @return view direction at the time
+     */
+    public float getViewDirection(double time) {
+        return getViewDirection(originViewDirection, direction, animatingMove, animatingTurn, timeStarted, time);
+    }
+
+    /**
+     * @return time at which the last move started
+     */
+    public long getTimeStarted() {
+        return timeStarted;
+    }
+
+    /**
+     * @return if the last move changed the position
+     */
+    public boolean isAnimatingMove() {
+        return animatingMove;
+    }
+
+    /**
+     * @return if the last move turned the movable
      */
-    public float getViewDirection() {
-        return viewDirection;
+    public boolean isAnimatingTurn() {
+        return animatingTurn;
     }
 
     /**
-     * @return is the movable animating
+     * @param time time on the board
+     * @return is the movable animating at the time
      */
-    public boolean isAnimating() {
-        return animatingMove || animatingTurn;
+    public boolean isAnimating(long time) {
+        return (animatingMove || animatingTurn) && time < timeStarted + ANIMATION_LENGTH;
     }
 
     /**
@@ -255,7 +342,7 @@ public class Movable {
         MOVE_ARRAY[MOVE_BACK_IN_TIME] = new int[]{0, 0};
     }
 
-    private static final long ANIMATION_LENGTH = 100;
+    public static final long ANIMATION_LENGTH = 100;
 
     private static final String LOG_TAG = "Movable";
 }
@@ -8,11 +8,13 @@ package com.piguy.Temporal_Bot;
 public class MovableBox extends Movable {
 
     private String color;
+    private int colorIndex;
 
     public MovableBox(int x, int y, int direction, String color) {
         super(x, y, direction, direction, true);
 
         this.color = color;
+        this.colorIndex = getColorIndex(color);
     }
 
     /**
@@ -22,6 +24,27 @@ public class MovableBox extends Movable {
         return color;
     }
 
+    /**
+     * @return the index of the color of the box in MOVABLE_BOX_COLORS
+     */
+    public int getColorIndex() {
+        return colorIndex;
+    }
+
+    /**
+     * @param color color id of a box
+     * @return the index of the color in MOVABLE_BOX_COLORS
+     */
+    public static int getColorIndex(String color) {
+        for (MOVABLE_BOX_COLORS boxColor : MOVABLE_BOX_COLORS.values()) {
+            if (boxColor.getID().equals(color)) {
+                return boxColor.ordinal();
+            }
+        }
+
+        return -1;
+    }
+
     // Constants for each type of movable box
     public static enum MOVABLE_BOX_COLORS {
         YELLOW("YELLOW");
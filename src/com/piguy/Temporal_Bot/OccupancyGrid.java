@@ -0,0 +1,112 @@
+package com.piguy.Temporal_Bot;
+
+import java.util.ArrayList;
+
+/**
+ * Index of which visible movable stands on each cell of the board, so that collisions can be found without scanning every movable
+ *
+ * @author Alex Vanyo
+ */
+public class OccupancyGrid {
+
+    private int width;
+    private int height;
+    private Movable[] cells;
+    private GoalTracker goals;
+
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        cells = new Movable[width * height];
+    }
+
+    /**
+     * @param goals tracker that is told whenever a box enters or leaves a cell
+     */
+    public void setGoalTracker(GoalTracker goals) {
+        this.goals = goals;
+    }
+
+    /**
+     * Clears the grid and places every visible movable in its current cell
+     *
+     * @param movables all of the movables on the board
+     */
+    public void rebuild(ArrayList<Movable> movables) {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = null;
+        }
+
+        if (goals != null) {
+            goals.clearBoxes();
+        }
+
+        for (Movable movable : movables) {
+            if (movable.isVisible()) {
+                cells[movable.getY() * width + movable.getX()] = movable;
+
+                if (goals != null && movable instanceof MovableBox) {
+                    goals.boxEntered(movable.getX(), movable.getY(), ((MovableBox) movable).getColorIndex());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param x x position of the cell
+     * @param y y position of the cell
+     * @return the visible movable in the cell, or null if the cell is empty
+     */
+    public Movable get(int x, int y) {
+        return cells[y * width + x];
+    }
+
+    /**
+     * Moves a movable from one cell to another
+     *
+     * @param movable movable that moved
+     * @param fromX   x position the movable left
+     * @param fromY   y position the movable left
+     * @param toX     x position the movable entered
+     * @param toY     y position the movable entered
+     */
+    public void move(Movable movable, int fromX, int fromY, int toX, int toY) {
+        remove(movable, fromX, fromY);
+        cells[toY * width + toX] = movable;
+
+        if (goals != null && movable instanceof MovableBox) {
+            goals.boxLeft(fromX, fromY, ((MovableBox) movable).getColorIndex());
+            goals.boxEntered(toX, toY, ((MovableBox) movable).getColorIndex());
+        }
+    }
+
+    /**
+     * Removes a movable from a cell, leaving the cell alone if another movable has already entered it
+     *
+     * @param movable movable to remove
+     * @param x       x position of the cell
+     * @param y       y position of the cell
+     */
+    public void remove(Movable movable, int x, int y) {
+        if (cells[y * width + x] == movable) {
+            cells[y * width + x] = null;
+        }
+    }
+
+    /**
+     * @return number of columns in the grid
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return number of rows in the grid
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    private static final String LOG_TAG = "OccupancyGrid";
+}
@@ -0,0 +1,129 @@
+package com.piguy.Temporal_Bot;
+
+/**
+ * Holds every particle effect on the board in parallel primitive arrays. Finished particles are removed by moving the last particle into their slot, so nothing is allocated once the arrays have grown to the largest number of particles alive at once
+ *
+ * @author Alex Vanyo
+ */
+public class ParticlePool {
+
+    private int[] xs;
+    private int[] ys;
+    private long[] startTimes;
+    private int size;
+
+    public ParticlePool() {
+        xs = new int[INITIAL_CAPACITY];
+        ys = new int[INITIAL_CAPACITY];
+        startTimes = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Removes every particle
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a particle, growing the arrays geometrically when they are full
+     *
+     * @param x           x position of the particle
+     * @param y           y position of the particle
+     * @param timeStarted time at which the particle was created
+     */
+    public void add(int x, int y, long timeStarted) {
+        if (size == xs.length) {
+            grow();
+        }
+
+        xs[size] = x;
+        ys[size] = y;
+        startTimes[size] = timeStarted;
+        size++;
+    }
+
+    /**
+     * Removes the particles whose animations are complete. How far each particle is through its animation is worked out from its start time when it is drawn
+     *
+     * @param elapsedTime current time on the board
+     */
+    public void update(long elapsedTime) {
+        int i = 0;
+        while (i < size) {
+            if (elapsedTime - startTimes[i] >= ANIMATION_LENGTH) {
+                // Swap the last particle into this slot and check it next
+                size--;
+                xs[i] = xs[size];
+                ys[i] = ys[size];
+                startTimes[i] = startTimes[size];
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @return number of particles on the board
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return if there are no particles on the board
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index index of the particle
+     * @return x position of the particle
+     */
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * @param index index of the particle
+     * @return y position of the particle
+     */
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * @param index index of the particle
+     * @return time at which the particle was created
+     */
+    public long getStartTime(int index) {
+        return startTimes[index];
+    }
+
+    /**
+     * Doubles the capacity of every array
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+
+        int[] newXs = new int[capacity];
+        int[] newYs = new int[capacity];
+        long[] newStartTimes = new long[capacity];
+
+        System.arraycopy(xs, 0, newXs, 0, size);
+        System.arraycopy(ys, 0, newYs, 0, size);
+        System.arraycopy(startTimes, 0, newStartTimes, 0, size);
+
+        xs = newXs;
+        ys = newYs;
+        startTimes = newStartTimes;
+    }
+
+    public static final long ANIMATION_LENGTH = 500;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private static final String LOG_TAG = "ParticlePool";
+}
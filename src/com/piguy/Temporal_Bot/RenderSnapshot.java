@@ -0,0 +1,478 @@
+package com.piguy.Temporal_Bot;
+
+import java.util.ArrayList;
+
+/**
+ * Copy of everything needed to draw one frame of the board: the last animation of each movable, the particles and the timeline values. The simulation thread fills a snapshot and hands it to the render thread through a RenderSnapshotBuffer, so that drawing never reads the live simulation. The render thread then interpolates the view positions for the exact time of each frame it draws
+ *
+ * @author Alex Vanyo
+ */
+public class RenderSnapshot {
+
+    private long sequence;
+
+    private long elapsedTime;
+    private long timelineLength;
+
+    private int robotCount;
+    private int currentRobot;
+    private int[] robotOriginXs;
+    private int[] robotOriginYs;
+    private int[] robotXs;
+    private int[] robotYs;
+    private float[] robotOriginViewDirections;
+    private int[] robotDirections;
+    private long[] robotTimesStarted;
+    private boolean[] robotAnimatingMoves;
+    private boolean[] robotAnimatingTurns;
+    private float[] robotViewXs;
+    private float[] robotViewYs;
+    private float[] robotViewDirections;
+    private boolean[] robotVisibles;
+    private long[] robotRewindTimes;
+
+    private int boxCount;
+    private int[] boxOriginXs;
+    private int[] boxOriginYs;
+    private int[] boxXs;
+    private int[] boxYs;
+    private long[] boxTimesStarted;
+    private boolean[] boxAnimatingMoves;
+    private float[] boxViewXs;
+    private float[] boxViewYs;
+    private boolean[] boxVisibles;
+    private String[] boxColors;
+
+    private int boxTileCount;
+    private int[] boxTileXs;
+    private int[] boxTileYs;
+    private boolean[] boxTileActivateds;
+    private String[] boxTileColors;
+
+    private int particleCount;
+    private int[] particleXs;
+    private int[] particleYs;
+    private long[] particleStartTimes;
+    private float[] particlePercentsDone;
+
+    public RenderSnapshot() {
+        sequence = 0;
+
+        allocateRobots(INITIAL_CAPACITY);
+        allocateBoxes(INITIAL_CAPACITY);
+        allocateBoxTiles(INITIAL_CAPACITY);
+        allocateParticles(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Copies the current state of the simulation into this snapshot, growing the arrays geometrically when they are too small
+     *
+     * @param sequence       number of this snapshot, which increases with each capture
+     * @param simulation     simulation to copy
+     * @param timelineLength time at the end of the level timeline
+     */
+    public void capture(long sequence, Simulation simulation, long timelineLength) {
+        this.sequence = sequence;
+
+        elapsedTime = simulation.getElapsedTime();
+        this.timelineLength = timelineLength;
+
+        ArrayList<Robot> robots = simulation.getRobots();
+        Robot current = simulation.getCurrentRobot();
+        if (robots.size() > robotViewXs.length) {
+            allocateRobots(Math.max(robots.size(), robotViewXs.length * 2));
+        }
+        robotCount = robots.size();
+        currentRobot = -1;
+        for (int i = 0; i < robotCount; i++) {
+            Robot robot = robots.get(i);
+            robotOriginXs[i] = robot.getOriginX();
+            robotOriginYs[i] = robot.getOriginY();
+            robotXs[i] = robot.getX();
+            robotYs[i] = robot.getY();
+            robotOriginViewDirections[i] = robot.getOriginViewDirection();
+            robotDirections[i] = robot.getDirection();
+            robotTimesStarted[i] = robot.getTimeStarted();
+            robotAnimatingMoves[i] = robot.isAnimatingMove();
+            robotAnimatingTurns[i] = robot.isAnimatingTurn();
+            robotVisibles[i] = robot.isVisible();
+            robotRewindTimes[i] = robot.getLastMoveDirection() == Movable.MOVE_BACK_IN_TIME ? robot.getLastMoveTime() : NO_REWIND;
+
+            if (robot == current) {
+                currentRobot = i;
+            }
+        }
+
+        ArrayList<MovableBox> movableBoxes = simulation.getMovableBoxes();
+        if (movableBoxes.size() > boxViewXs.length) {
+            allocateBoxes(Math.max(movableBoxes.size(), boxViewXs.length * 2));
+        }
+        boxCount = movableBoxes.size();
+        for (int i = 0; i < boxCount; i++) {
+            MovableBox movableBox = movableBoxes.get(i);
+            boxOriginXs[i] = movableBox.getOriginX();
+            boxOriginYs[i] = movableBox.getOriginY();
+            boxXs[i] = movableBox.getX();
+            boxYs[i] = movableBox.getY();
+            boxTimesStarted[i] = movableBox.getTimeStarted();
+            boxAnimatingMoves[i] = movableBox.isAnimatingMove();
+            boxVisibles[i] = movableBox.isVisible();
+            boxColors[i] = movableBox.getColor();
+        }
+
+        ArrayList<MovableBoxTile> movableBoxTiles = simulation.getMovableBoxTiles();
+        if (movableBoxTiles.size() > boxTileXs.length) {
+            allocateBoxTiles(Math.max(movableBoxTiles.size(), boxTileXs.length * 2));
+        }
+        boxTileCount = movableBoxTiles.size();
+        GoalTracker goals = simulation.getGoals();
+        for (int i = 0; i < boxTileCount; i++) {
+            MovableBoxTile tile = movableBoxTiles.get(i);
+            boxTileXs[i] = tile.getX();
+            boxTileYs[i] = tile.getY();
+            boxTileColors[i] = tile.getColor();
+
+            // A tile is activated when a box of its color stands on it, which the goal tracker already knows
+            boxTileActivateds[i] = goals.isSatisfied(tile.getX(), tile.getY());
+        }
+
+        ParticlePool particles = simulation.getParticles();
+        if (particles.size() > particleXs.length) {
+            allocateParticles(Math.max(particles.size(), particleXs.length * 2));
+        }
+        particleCount = particles.size();
+        for (int i = 0; i < particleCount; i++) {
+            particleXs[i] = particles.getX(i);
+            particleYs[i] = particles.getY(i);
+            particleStartTimes[i] = particles.getStartTime(i);
+        }
+
+        interpolate(0);
+    }
+
+    /**
+     * Works out where each movable and particle is drawn at a time shortly after the snapshot was captured. Only called from the render thread
+     *
+     * @param subTickTime time in milliseconds since the snapshot was captured, which is less than one tick
+     */
+    public void interpolate(float subTickTime) {
+        double time = elapsedTime + subTickTime;
+
+        for (int i = 0; i < robotCount; i++) {
+            robotViewXs[i] = Movable.getViewPosition(robotOriginXs[i], robotXs[i], robotAnimatingMoves[i], robotTimesStarted[i], time);
+            robotViewYs[i] = Movable.getViewPosition(robotOriginYs[i], robotYs[i], robotAnimatingMoves[i], robotTimesStarted[i], time);
+            robotViewDirections[i] = Movable.getViewDirection(robotOriginViewDirections[i], robotDirections[i], robotAnimatingMoves[i], robotAnimatingTurns[i], robotTimesStarted[i], time);
+        }
+
+        for (int i = 0; i < boxCount; i++) {
+            boxViewXs[i] = Movable.getViewPosition(boxOriginXs[i], boxXs[i], boxAnimatingMoves[i], boxTimesStarted[i], time);
+            boxViewYs[i] = Movable.getViewPosition(boxOriginYs[i], boxYs[i], boxAnimatingMoves[i], boxTimesStarted[i], time);
+        }
+
+        for (int i = 0; i < particleCount; i++) {
+            particlePercentsDone[i] = (float) Math.min(1, (time - particleStartTimes[i]) / ParticlePool.ANIMATION_LENGTH);
+        }
+    }
+
+    /**
+     * Copies another snapshot into this one, so that it can be kept after the other is reused
+     *
+     * @param other snapshot to copy
+     */
+    public void copyFrom(RenderSnapshot other) {
+        sequence = other.sequence;
+
+        elapsedTime = other.elapsedTime;
+        timelineLength = other.timelineLength;
+
+        if (other.robotCount > robotViewXs.length) {
+            allocateRobots(other.robotViewXs.length);
+        }
+        robotCount = other.robotCount;
+        currentRobot = other.currentRobot;
+        System.arraycopy(other.robotOriginXs, 0, robotOriginXs, 0, robotCount);
+        System.arraycopy(other.robotOriginYs, 0, robotOriginYs, 0, robotCount);
+        System.arraycopy(other.robotXs, 0, robotXs, 0, robotCount);
+        System.arraycopy(other.robotYs, 0, robotYs, 0, robotCount);
+        System.arraycopy(other.robotOriginViewDirections, 0, robotOriginViewDirections, 0, robotCount);
+        System.arraycopy(other.robotDirections, 0, robotDirections, 0, robotCount);
+        System.arraycopy(other.robotTimesStarted, 0, robotTimesStarted, 0, robotCount);
+        System.arraycopy(other.robotAnimatingMoves, 0, robotAnimatingMoves, 0, robotCount);
+        System.arraycopy(other.robotAnimatingTurns, 0, robotAnimatingTurns, 0, robotCount);
+        System.arraycopy(other.robotViewXs, 0, robotViewXs, 0, robotCount);
+        System.arraycopy(other.robotViewYs, 0, robotViewYs, 0, robotCount);
+        System.arraycopy(other.robotViewDirections, 0, robotViewDirections, 0, robotCount);
+        System.arraycopy(other.robotVisibles, 0, robotVisibles, 0, robotCount);
+        System.arraycopy(other.robotRewindTimes, 0, robotRewindTimes, 0, robotCount);
+
+        if (other.boxCount > boxViewXs.length) {
+            allocateBoxes(other.boxViewXs.length);
+        }
+        boxCount = other.boxCount;
+        System.arraycopy(other.boxOriginXs, 0, boxOriginXs, 0, boxCount);
+        System.arraycopy(other.boxOriginYs, 0, boxOriginYs, 0, boxCount);
+        System.arraycopy(other.boxXs, 0, boxXs, 0, boxCount);
+        System.arraycopy(other.boxYs, 0, boxYs, 0, boxCount);
+        System.arraycopy(other.boxTimesStarted, 0, boxTimesStarted, 0, boxCount);
+        System.arraycopy(other.boxAnimatingMoves, 0, boxAnimatingMoves, 0, boxCount);
+        System.arraycopy(other.boxViewXs, 0, boxViewXs, 0, boxCount);
+        System.arraycopy(other.boxViewYs, 0, boxViewYs, 0, boxCount);
+        System.arraycopy(other.boxVisibles, 0, boxVisibles, 0, boxCount);
+        System.arraycopy(other.boxColors, 0, boxColors, 0, boxCount);
+
+        if (other.boxTileCount > boxTileXs.length) {
+            allocateBoxTiles(other.boxTileXs.length);
+        }
+        boxTileCount = other.boxTileCount;
+        System.arraycopy(other.boxTileXs, 0, boxTileXs, 0, boxTileCount);
+        System.arraycopy(other.boxTileYs, 0, boxTileYs, 0, boxTileCount);
+        System.arraycopy(other.boxTileActivateds, 0, boxTileActivateds, 0, boxTileCount);
+        System.arraycopy(other.boxTileColors, 0, boxTileColors, 0, boxTileCount);
+
+        if (other.particleCount > particleXs.length) {
+            allocateParticles(other.particleXs.length);
+        }
+        particleCount = other.particleCount;
+        System.arraycopy(other.particleXs, 0, particleXs, 0, particleCount);
+        System.arraycopy(other.particleYs, 0, particleYs, 0, particleCount);
+        System.arraycopy(other.particleStartTimes, 0, particleStartTimes, 0, particleCount);
+        System.arraycopy(other.particlePercentsDone, 0, particlePercentsDone, 0, particleCount);
+    }
+
+    /**
+     * @return number of this snapshot, or 0 if nothing has been captured yet
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return time on the board when the snapshot was captured
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * @return time at the end of the level timeline
+     */
+    public long getTimelineLength() {
+        return timelineLength;
+    }
+
+    /**
+     * @return number of robots
+     */
+    public int getRobotCount() {
+        return robotCount;
+    }
+
+    /**
+     * @return index of the robot controlled by the user
+     */
+    public int getCurrentRobot() {
+        return currentRobot;
+    }
+
+    /**
+     * @param index index of the robot
+     * @return x position of the robot as drawn at the interpolated time
+     */
+    public float getRobotViewX(int index) {
+        return robotViewXs[index];
+    }
+
+    /**
+     * @param index index of the robot
+     * @return y position of the robot as drawn at the interpolated time
+     */
+    public float getRobotViewY(int index) {
+        return robotViewYs[index];
+    }
+
+    /**
+     * @param index index of the robot
+     * @return direction of the robot as drawn at the interpolated time
+     */
+    public float getRobotViewDirection(int index) {
+        return robotViewDirections[index];
+    }
+
+    /**
+     * @param index index of the robot
+     * @return if the robot is visible
+     */
+    public boolean isRobotVisible(int index) {
+        return robotVisibles[index];
+    }
+
+    /**
+     * @param index index of the robot
+     * @return time at which the robot went back in time, or NO_REWIND if it has not
+     */
+    public long getRobotRewindTime(int index) {
+        return robotRewindTimes[index];
+    }
+
+    /**
+     * @return number of movable boxes
+     */
+    public int getBoxCount() {
+        return boxCount;
+    }
+
+    /**
+     * @param index index of the movable box
+     * @return x position of the movable box as drawn at the interpolated time
+     */
+    public float getBoxViewX(int index) {
+        return boxViewXs[index];
+    }
+
+    /**
+     * @param index index of the movable box
+     * @return y position of the movable box as drawn at the interpolated time
+     */
+    public float getBoxViewY(int index) {
+        return boxViewYs[index];
+    }
+
+    /**
+     * @param index index of the movable box
+     * @return if the movable box is visible
+     */
+    public boolean isBoxVisible(int index) {
+        return boxVisibles[index];
+    }
+
+    /**
+     * @param index index of the movable box
+     * @return color id of the movable box
+     */
+    public String getBoxColor(int index) {
+        return boxColors[index];
+    }
+
+    /**
+     * @return number of movable box tiles
+     */
+    public int getBoxTileCount() {
+        return boxTileCount;
+    }
+
+    /**
+     * @param index index of the movable box tile
+     * @return x position of the movable box tile
+     */
+    public int getBoxTileX(int index) {
+        return boxTileXs[index];
+    }
+
+    /**
+     * @param index index of the movable box tile
+     * @return y position of the movable box tile
+     */
+    public int getBoxTileY(int index) {
+        return boxTileYs[index];
+    }
+
+    /**
+     * @param index index of the movable box tile
+     * @return if a box of the right color stands on the movable box tile
+     */
+    public boolean isBoxTileActivated(int index) {
+        return boxTileActivateds[index];
+    }
+
+    /**
+     * @param index index of the movable box tile
+     * @return color id of the movable box tile
+     */
+    public String getBoxTileColor(int index) {
+        return boxTileColors[index];
+    }
+
+    /**
+     * @return number of particles
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * @param index index of the particle
+     * @return x position of the particle
+     */
+    public int getParticleX(int index) {
+        return particleXs[index];
+    }
+
+    /**
+     * @param index index of the particle
+     * @return y position of the particle
+     */
+    public int getParticleY(int index) {
+        return particleYs[index];
+    }
+
+    /**
+     * @param index index of the particle
+     * @return percent that the animation of the particle is complete at the interpolated time
+     */
+    public float getParticlePercentDone(int index) {
+        return particlePercentsDone[index];
+    }
+
+    private void allocateRobots(int capacity) {
+        robotOriginXs = new int[capacity];
+        robotOriginYs = new int[capacity];
+        robotXs = new int[capacity];
+        robotYs = new int[capacity];
+        robotOriginViewDirections = new float[capacity];
+        robotDirections = new int[capacity];
+        robotTimesStarted = new long[capacity];
+        robotAnimatingMoves = new boolean[capacity];
+        robotAnimatingTurns = new boolean[capacity];
+        robotViewXs = new float[capacity];
+        robotViewYs = new float[capacity];
+        robotViewDirections = new float[capacity];
+        robotVisibles = new boolean[capacity];
+        robotRewindTimes = new long[capacity];
+    }
+
+    private void allocateBoxes(int capacity) {
+        boxOriginXs = new int[capacity];
+        boxOriginYs = new int[capacity];
+        boxXs = new int[capacity];
+        boxYs = new int[capacity];
+        boxTimesStarted = new long[capacity];
+        boxAnimatingMoves = new boolean[capacity];
+        boxViewXs = new float[capacity];
+        boxViewYs = new float[capacity];
+        boxVisibles = new boolean[capacity];
+        boxColors = new String[capacity];
+    }
+
+    private void allocateBoxTiles(int capacity) {
+        boxTileXs = new int[capacity];
+        boxTileYs = new int[capacity];
+        boxTileActivateds = new boolean[capacity];
+        boxTileColors = new String[capacity];
+    }
+
+    private void allocateParticles(int capacity) {
+        particleXs = new int[capacity];
+        particleYs = new int[capacity];
+        particleStartTimes = new long[capacity];
+        particlePercentsDone = new float[capacity];
+    }
+
+    /**
+     * Returned as the rewind time of a robot that has not gone back in time
+     */
+    public static final long NO_REWIND = -1;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final String LOG_TAG = "RenderSnapshot";
+}
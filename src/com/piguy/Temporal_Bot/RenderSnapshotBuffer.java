@@ -0,0 +1,62 @@
+package com.piguy.Temporal_Bot;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Triple buffer of render snapshots shared by the simulation thread and the render thread. The thread updating the simulation fills its back snapshot and swaps it into the pending slot, and the render thread swaps its front snapshot for the pending one whenever the pending one is newer. Each swap is a single atomic exchange, so neither thread ever waits for the other.
+ *
+ * @author Alex Vanyo
+ */
+public class RenderSnapshotBuffer {
+
+    // Owned by whichever thread holds the lock on the simulation
+    private RenderSnapshot back;
+    private long sequence;
+
+    // Owned by the render thread
+    private RenderSnapshot front;
+
+    private final AtomicReference<RenderSnapshot> pending;
+
+    public RenderSnapshotBuffer() {
+        back = new RenderSnapshot();
+        front = new RenderSnapshot();
+        pending = new AtomicReference<RenderSnapshot>(new RenderSnapshot());
+        sequence = 0;
+    }
+
+    /**
+     * Captures the simulation into the back snapshot and publishes it. Only called while holding the lock that guards the simulation
+     *
+     * @param simulation     simulation to capture
+     * @param timelineLength time at the end of the level timeline
+     */
+    public void publish(Simulation simulation, long timelineLength) {
+        back.capture(++sequence, simulation, timelineLength);
+        back = pending.getAndSet(back);
+    }
+
+    /**
+     * Takes the newest published snapshot if there is one, and otherwise keeps the last one. Only called from the render thread
+     *
+     * @return snapshot to draw, which stays unchanged until the next call
+     */
+    public RenderSnapshot acquire() {
+        if (pending.get().getSequence() > front.getSequence()) {
+            front = pending.getAndSet(front);
+        }
+
+        return front;
+    }
+
+    /**
+     * Only called from the render thread
+     *
+     * @return the snapshot taken by the last call to acquire()
+     */
+    public RenderSnapshot getFront() {
+        return front;
+    }
+
+    private static final String LOG_TAG = "RenderSnapshotBuffer";
+}
@@ -1,7 +1,5 @@
 package com.piguy.Temporal_Bot;
 
-import java.util.ArrayList;
-
 /**
  * Represents any of the robots that can be controlled by the user on the board
  *
@@ -9,55 +7,151 @@ import java.util.ArrayList;
  */
 public class Robot extends Movable {
 
-    private ArrayList<MoveCommand> moveCommands;
+    // Each move command is packed into a single long: the execute time in the high bits and the direction in the low bits
+    private long[] moveCommands;
+    private int commandCount;
+    private int commandCursor;
 
     public Robot(int x, int y, int direction, boolean visible) {
         super(x, y, direction, direction, visible);
 
-        moveCommands = new ArrayList<MoveCommand>();
+        moveCommands = new long[INITIAL_COMMAND_CAPACITY];
+        commandCount = 0;
+        commandCursor = 0;
     }
 
     /**
-     * Extends the reset function to include resetting all move commands associated with the robot
+     * Extends the reset function to rewind the robot to its first move command
      */
     @Override
     public void reset() {
         super.reset();
 
-        for (MoveCommand moveCommand : moveCommands) {
-            moveCommand.reset();
-        }
+        commandCursor = 0;
     }
 
     /**
-     * Finds if a robot command needs to be run
+     * Finds if a robot command needs to be run. Commands are added in time order, so only the next unexecuted command needs to be checked. A command runs on the first tick after its time, which is when it first ran as it was given, so replays match the original run
      *
      * @param elapsedTime current time on the board
-     * @return the move command that needs to be executed
+     * @return the direction of the move command that needs to be executed, or NO_COMMAND if there is none
      */
-    public MoveCommand updateCommands(long elapsedTime) {
-        for (MoveCommand moveCommand : moveCommands) {
-            if (moveCommand.execute(elapsedTime)) {
-                return moveCommand;
-            }
+    public int updateCommands(long elapsedTime) {
+        if (commandCursor < commandCount && getExecuteTime(moveCommands[commandCursor]) < elapsedTime) {
+            return getDirection(moveCommands[commandCursor++]);
         }
 
-        return null;
+        return NO_COMMAND;
+    }
+
+    /**
+     * @return if this robot has a move command that has not been executed yet
+     */
+    public boolean hasPendingMoveCommand() {
+        return commandCursor < commandCount;
+    }
+
+    /**
+     * @return execute time of the next move command that has not been executed yet
+     */
+    public long getNextMoveTime() {
+        return getExecuteTime(moveCommands[commandCursor]);
+    }
+
+    /**
+     * @return index of the next move command that has not been executed yet
+     */
+    public int getCommandCursor() {
+        return commandCursor;
+    }
+
+    /**
+     * @param commandCursor index of the next move command to execute, as recorded by getCommandCursor()
+     */
+    public void setCommandCursor(int commandCursor) {
+        this.commandCursor = commandCursor;
     }
 
     /**
-     * @return last move command for this robot
+     * Removes every move command that executes after the given time, so that new commands can replace them
+     *
+     * @param time time after which move commands are removed
      */
-    public MoveCommand getLastMoveCommand() {
-        return moveCommands.isEmpty() ? null : moveCommands.get(moveCommands.size() - 1);
+    public void truncateCommandsAfter(long time) {
+        while (commandCount > commandCursor && getExecuteTime(moveCommands[commandCount - 1]) > time) {
+            commandCount--;
+        }
     }
 
     /**
-     * @param command command that will be added to the robots list of commands
+     * Removes every move command, as for a robot that has never been given any
      */
-    public void addMoveCommand(MoveCommand command) {
-        moveCommands.add(command);
+    public void clearMoveCommands() {
+        commandCount = 0;
+        commandCursor = 0;
     }
 
+    /**
+     * @return if this robot has been given any move commands
+     */
+    public boolean hasMoveCommands() {
+        return commandCount > 0;
+    }
+
+    /**
+     * @return direction of the last move command for this robot, or NO_COMMAND if there is none
+     */
+    public int getLastMoveDirection() {
+        return commandCount == 0 ? NO_COMMAND : getDirection(moveCommands[commandCount - 1]);
+    }
+
+    /**
+     * @return execute time of the last move command for this robot, or 0 if there is none
+     */
+    public long getLastMoveTime() {
+        return commandCount == 0 ? 0 : getExecuteTime(moveCommands[commandCount - 1]);
+    }
+
+    /**
+     * Adds a command to the robots list of commands, growing the list geometrically when it is full
+     *
+     * @param direction   direction for the move command
+     * @param executeTime at what time the move should be executed
+     */
+    public void addMoveCommand(int direction, long executeTime) {
+        if (commandCount == moveCommands.length) {
+            long[] newMoveCommands = new long[moveCommands.length * 2];
+            System.arraycopy(moveCommands, 0, newMoveCommands, 0, commandCount);
+            moveCommands = newMoveCommands;
+        }
+
+        moveCommands[commandCount++] = (executeTime << DIRECTION_BITS) | direction;
+    }
+
+    /**
+     * @param command packed move command
+     * @return direction of the packed move command
+     */
+    private static int getDirection(long command) {
+        return (int) (command & DIRECTION_MASK);
+    }
+
+    /**
+     * @param command packed move command
+     * @return execute time of the packed move command
+     */
+    private static long getExecuteTime(long command) {
+        return command >>> DIRECTION_BITS;
+    }
+
+    /**
+     * Returned when there is no move command
+     */
+    public static final int NO_COMMAND = -1;
+
+    private static final int INITIAL_COMMAND_CAPACITY = 16;
+    private static final int DIRECTION_BITS = 3;
+    private static final long DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
+
     private static final String LOG_TAG = "Robot";
 }
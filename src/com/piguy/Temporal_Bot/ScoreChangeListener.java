@@ -0,0 +1,16 @@
+package com.piguy.Temporal_Bot;
+
+/**
+ * Listener for scores that have been saved, so that views can refresh only the level that changed
+ *
+ * @author Alex Vanyo
+ */
+public interface ScoreChangeListener {
+    /**
+     * Called on the thread that saved the score, after it has been committed
+     *
+     * @param id    id of the level
+     * @param score new saved score for the level
+     */
+    public void scoreChanged(int id, Score score);
+}
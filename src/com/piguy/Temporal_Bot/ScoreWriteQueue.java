@@ -0,0 +1,133 @@
+package com.piguy.Temporal_Bot;
+
+import android.util.Log;
+import android.util.SparseArray;
+
+/**
+ * Write-behind queue for scores. Queuing a score never touches the disk. A background thread writes the queued scores in batches, and a later score for a level replaces any queued score for that level that has not been written yet
+ *
+ * @author Alex Vanyo
+ */
+public class ScoreWriteQueue {
+
+    /**
+     * Writes a batch of scores to storage
+     */
+    public interface Writer {
+        /**
+         * @param scores scores to write by level id, which should be committed together
+         */
+        void writeScores(SparseArray<Score> scores);
+    }
+
+    private final Writer writer;
+    private final Object lock;
+
+    // Scores waiting to be written, and the batch that is being written
+    private SparseArray<Score> pending;
+    private SparseArray<Score> writing;
+
+    // Number of scores queued and number of those that have been written, so flush() knows when to return
+    private long queuedCount;
+    private long writtenCount;
+
+    public ScoreWriteQueue(Writer writer) {
+        this.writer = writer;
+
+        lock = new Object();
+        pending = new SparseArray<Score>();
+        writing = new SparseArray<Score>();
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "ScoreWriteQueue");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Queues a score to be written, without waiting for the disk
+     *
+     * @param score score to write
+     */
+    public void enqueue(Score score) {
+        synchronized (lock) {
+            pending.put(score.getID(), score);
+            queuedCount++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Gets a score that has been queued but may not have been written yet
+     *
+     * @param id id of the level
+     * @return the latest queued score for the level, or null if there is none waiting
+     */
+    public Score getQueued(int id) {
+        synchronized (lock) {
+            Score score = pending.get(id);
+            return score != null ? score : writing.get(id);
+        }
+    }
+
+    /**
+     * Blocks until every score queued before this call has been written
+     */
+    public void flush() {
+        synchronized (lock) {
+            long target = queuedCount;
+            while (writtenCount < target) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for queued scores and writes them, one batch at a time
+     */
+    private void writeLoop() {
+        while (true) {
+            long batchCount;
+
+            synchronized (lock) {
+                while (pending.size() == 0) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                // Swaps the pending scores out so more can be queued while this batch is written
+                SparseArray<Score> batch = pending;
+                pending = writing;
+                writing = batch;
+                batchCount = queuedCount;
+            }
+
+            try {
+                writer.writeScores(writing);
+            } catch (RuntimeException e) {
+                Log.e(LOG_TAG, "Unable to write scores", e);
+            }
+
+            synchronized (lock) {
+                writing.clear();
+                writtenCount = batchCount;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static final String LOG_TAG = "ScoreWriteQueue";
+}
@@ -0,0 +1,461 @@
+package com.piguy.Temporal_Bot;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * Runs the game rules for a level: the tiles, robots, boxes and time. It has no Android dependencies, so the same level and commands always give the same result, and it can run headlessly much faster than real time.
+ *
+ * @author Alex Vanyo
+ */
+public class Simulation {
+
+    private long elapsedTime;
+    private long animationEndTime;
+    private long furthestTime;
+    private TickScheduler scheduler;
+    private KeyframeLog keyframes;
+
+    private CompiledLevel level;
+    private int tileNumberX;
+    private int tileNumberY;
+
+    private TileGrid tiles;
+    private OccupancyGrid occupancy;
+    private GoalTracker goals;
+    private BitSet spawnCells;
+    private ArrayList<Robot> robots;
+    private ArrayList<MovableBox> movableBoxes;
+    private ArrayList<MovableBoxTile> movableBoxTiles;
+    private ParticlePool particles;
+
+    private boolean canWarpBackInTime;
+    private boolean won;
+
+    public Simulation() {
+        // Initialize arrays for the board
+        robots = new ArrayList<Robot>();
+        movableBoxes = new ArrayList<MovableBox>();
+        movableBoxTiles = new ArrayList<MovableBoxTile>();
+        particles = new ParticlePool();
+
+        scheduler = new TickScheduler();
+        keyframes = new KeyframeLog();
+        spawnCells = new BitSet();
+    }
+
+    /**
+     * Sets the simulation for a certain level, using the cached compiled form of the passed level string. Also resets the non-wall/floor objects.
+     *
+     * @param levelString level string as given by Level.getLevelString()
+     * @see Simulation#reset
+     */
+    public void setLevel(String levelString) {
+        level = CompiledLevel.compile(levelString);
+        this.tileNumberX = level.getTileNumberX();
+        this.tileNumberY = level.getTileNumberY();
+
+        // Shares the compiled tile grid, and initializes the grid of movables standing on each tile
+        tiles = level.getTiles();
+        occupancy = new OccupancyGrid(tileNumberX, tileNumberY);
+        goals = new GoalTracker(tileNumberX, tileNumberY);
+        occupancy.setGoalTracker(goals);
+
+        // Creates each special object once. Resetting only rewinds these objects
+        robots.clear();
+        for (int i = 0; i < level.getRobotCount(); i++) {
+            robots.add(new Robot(level.getRobotX(i), level.getRobotY(i), level.getRobotDirection(i), true));
+        }
+
+        movableBoxes.clear();
+        for (int i = 0; i < level.getBoxCount(); i++) {
+            movableBoxes.add(new MovableBox(level.getBoxX(i), level.getBoxY(i), 0, MovableBox.MOVABLE_BOX_COLORS.values()[level.getBoxColor(i)].getID()));
+        }
+
+        movableBoxTiles.clear();
+        for (int i = 0; i < level.getGoalCount(); i++) {
+            movableBoxTiles.add(new MovableBoxTile(level.getGoalX(i), level.getGoalY(i), MovableBox.MOVABLE_BOX_COLORS.values()[level.getGoalColor(i)].getID()));
+        }
+
+        reset();
+    }
+
+    /**
+     * Resets the simulation to its default state. Only touches the parts of the board that can move (robots, etc.)
+     */
+    public void reset() {
+
+        // Removes the robots that went back in time, and rewinds the rest to where they started with no move commands
+        while (robots.size() > level.getRobotCount()) {
+            robots.remove(robots.size() - 1);
+        }
+        for (Robot robot : robots) {
+            robot.reset();
+            robot.clearMoveCommands();
+        }
+        for (MovableBox movableBox : movableBoxes) {
+            movableBox.reset();
+        }
+        particles.clear();
+
+        goals.clear();
+        for (int i = 0; i < level.getGoalCount(); i++) {
+            goals.addGoal(level.getGoalX(i), level.getGoalY(i), level.getGoalColor(i));
+        }
+
+        // Marks the cells that movables start on, which the current robot cannot warp back in time from
+        spawnCells.clear();
+        spawnCells.or(level.getSpawnCells());
+
+        occupancy.rebuild(getMovables());
+
+        // Resets flag variables. The current robot starts on its spawn cell, so it cannot go back in time until it moves
+        won = false;
+        updateCanWarpBackInTime();
+        elapsedTime = 0;
+        animationEndTime = 0;
+        furthestTime = 0;
+
+        // Update the flags on the first tick
+        scheduler.clear();
+        scheduler.schedule(0);
+
+        keyframes.clear();
+        keyframes.record(elapsedTime, robots, movableBoxes, won);
+    }
+
+    /**
+     * Applies a command to the robot that is currently being controlled, at the current time. Going back in time resets the board to the initial state and adds a new robot, and each older robot will redo its moves
+     *
+     * @param direction direction to move, or Movable.MOVE_BACK_IN_TIME
+     */
+    public void applyCommand(int direction) {
+        // After seeking back, the new command replaces whatever the current robot did after this time
+        getCurrentRobot().truncateCommandsAfter(elapsedTime);
+        keyframes.truncateAfter(elapsedTime);
+        furthestTime = elapsedTime;
+
+        // The scheduler only holds each robot's next command, which is already scheduled if the robot has one waiting
+        if (!getCurrentRobot().hasPendingMoveCommand()) {
+            scheduler.schedule(elapsedTime);
+        }
+
+        getCurrentRobot().addMoveCommand(direction, elapsedTime);
+
+        if (direction == Movable.MOVE_BACK_IN_TIME) {
+            robots.add(new Robot(getCurrentRobot().getX(), getCurrentRobot().getY(), getCurrentRobot().getDirection(), true));
+            spawnCells.set(getCurrentRobot().getInitY() * tileNumberX + getCurrentRobot().getInitX());
+
+            ArrayList<Movable> movables = getMovables();
+            for (Movable movable : movables) {
+                movable.reset();
+            }
+
+            occupancy.rebuild(movables);
+
+            // The new robot starts on its spawn cell, so a second warp before the first tick is refused
+            updateCanWarpBackInTime();
+
+            particles.clear();
+
+            elapsedTime = 0;
+            animationEndTime = 0;
+            furthestTime = 0;
+
+            // Every robot replays from its first command, and the flags are updated on the first tick
+            scheduler.clear();
+            scheduler.schedule(0);
+            for (Robot robot : robots) {
+                if (robot.hasPendingMoveCommand()) {
+                    scheduler.schedule(robot.getNextMoveTime());
+                }
+            }
+
+            keyframes.clear();
+            keyframes.record(elapsedTime, robots, movableBoxes, won);
+        }
+    }
+
+    /**
+     * Advances the simulation by a single tick, as the live game loop does
+     *
+     * @return if anything on the board was updated
+     * @see Simulation#update
+     */
+    public boolean tick() {
+        elapsedTime += TICK_LENGTH;
+        furthestTime = Math.max(furthestTime, elapsedTime);
+
+        return update();
+    }
+
+    /**
+     * Advances the simulation by the given number of ticks without stepping through the idle ones
+     *
+     * @param ticks number of ticks to advance
+     */
+    public void step(long ticks) {
+        fastForward(elapsedTime + ticks * TICK_LENGTH);
+    }
+
+    /**
+     * Advances the simulation to the given time, jumping straight from one scheduled event to the next instead of stepping through every idle tick
+     *
+     * @param time board time to advance to
+     */
+    public void fastForward(long time) {
+        while (scheduler.nextEventTime() < time) {
+            // Events are handled on the first tick after their time, exactly as they would be by the timer
+            long eventTick = (scheduler.nextEventTime() / TICK_LENGTH + 1) * TICK_LENGTH;
+            long nextTick = Math.max(elapsedTime + TICK_LENGTH, eventTick);
+
+            if (nextTick > time) {
+                break;
+            }
+
+            elapsedTime = nextTick;
+            update();
+        }
+
+        elapsedTime = Math.max(elapsedTime, time - time % TICK_LENGTH);
+        furthestTime = Math.max(furthestTime, elapsedTime);
+    }
+
+    /**
+     * Moves the simulation to any time in the current run. The nearest keyframe at or before the time is restored, and only the remaining ticks are simulated.
+     *
+     * @param time board time to seek to
+     */
+    public void seek(long time) {
+        time = Math.max(0, time - time % TICK_LENGTH);
+
+        // Simulating forward from the current state is cheaper when no keyframe is closer to the target
+        int keyframe = keyframes.find(time);
+        if (time < elapsedTime || keyframes.getTime(keyframe) > elapsedTime) {
+            elapsedTime = keyframes.getTime(keyframe);
+            won = keyframes.restore(keyframe, robots, movableBoxes);
+
+            occupancy.rebuild(getMovables());
+            particles.clear();
+            animationEndTime = 0;
+
+            // The flag has to match the restored positions even if no tick runs before the target time
+            updateCanWarpBackInTime();
+
+            // Every robot continues from its restored command
+            scheduler.clear();
+            scheduler.schedule(elapsedTime);
+            for (Robot robot : robots) {
+                if (robot.hasPendingMoveCommand()) {
+                    scheduler.schedule(robot.getNextMoveTime());
+                }
+            }
+        }
+
+        fastForward(time);
+    }
+
+    /**
+     * Forms most of the game loop. Robots only update their command lists when the scheduler has an event due, and finished particles are only cleared while an animation is running. Movables need no update to animate, since their view positions are worked out from the time of each frame
+     *
+     * @return if anything on the board was updated
+     */
+    private boolean update() {
+        boolean due = scheduler.pollDue(elapsedTime);
+        boolean animating = elapsedTime <= animationEndTime || !particles.isEmpty();
+
+        if (due) {
+            if (!won) {
+                // Update robots
+                for (Robot robot : robots) {
+                    int direction = robot.updateCommands(elapsedTime);
+
+                    if (direction != Robot.NO_COMMAND) {
+                        robot.move(direction, tiles, occupancy, elapsedTime, true);
+
+                        // The robot and anything it pushed animate until this time
+                        animationEndTime = elapsedTime + Movable.ANIMATION_LENGTH;
+                        scheduler.schedule(animationEndTime);
+                        animating = true;
+
+                        if (direction == Movable.MOVE_BACK_IN_TIME) {
+                            particles.add(robot.getX(), robot.getY(), elapsedTime);
+                            scheduler.schedule(elapsedTime + ParticlePool.ANIMATION_LENGTH);
+                        }
+
+                        if (robot.hasPendingMoveCommand()) {
+                            scheduler.schedule(robot.getNextMoveTime());
+                        }
+                    }
+                }
+            }
+
+            // Check win conditions, which the goal tracker keeps up to date as boxes move
+            if (!won) {
+                won = goals.isComplete();
+            }
+
+            updateCanWarpBackInTime();
+        }
+
+        if (animating) {
+            // Clear finished particles
+            particles.update(elapsedTime);
+        }
+
+        // Record a keyframe once enough time has passed since the last one
+        if (elapsedTime >= keyframes.getLastTime() + KEYFRAME_INTERVAL) {
+            keyframes.record(elapsedTime, robots, movableBoxes, won);
+        }
+
+        return due || animating;
+    }
+
+    /**
+     * Updates the reset time flag. The current robot cannot go back in time from a cell that a movable starts on, or once the game is won
+     */
+    private void updateCanWarpBackInTime() {
+        canWarpBackInTime = !won && !spawnCells.get(getCurrentRobot().getY() * tileNumberX + getCurrentRobot().getX());
+    }
+
+    /**
+     * @return current time on the board in milliseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * @return furthest time the current run has been simulated to, which stays the same when seeking back
+     */
+    public long getFurthestTime() {
+        return furthestTime;
+    }
+
+    /**
+     * @return number of columns on the board
+     */
+    public int getTileNumberX() {
+        return tileNumberX;
+    }
+
+    /**
+     * @return number of rows on the board
+     */
+    public int getTileNumberY() {
+        return tileNumberY;
+    }
+
+    /**
+     * @return the tile grid for the board
+     */
+    public TileGrid getTiles() {
+        return tiles;
+    }
+
+    /**
+     * @return if the first robot has been given a command, which starts the clock
+     */
+    public boolean hasStarted() {
+        return robots.get(0).hasMoveCommands();
+    }
+
+    /**
+     * @return the robot that is currently being controlled
+     */
+    public Robot getCurrentRobot() {
+        return robots.get(robots.size() - 1);
+    }
+
+    /**
+     * @return the robot array (all robots in the current game)
+     */
+    public ArrayList<Robot> getRobots() {
+        return robots;
+    }
+
+    /**
+     * @return all of the movable boxes on the board
+     */
+    public ArrayList<MovableBox> getMovableBoxes() {
+        return movableBoxes;
+    }
+
+    /**
+     * @return all of the movable box tiles on the board
+     */
+    public ArrayList<MovableBoxTile> getMovableBoxTiles() {
+        return movableBoxTiles;
+    }
+
+    /**
+     * @return grid of the visible movable standing on each cell
+     */
+    public OccupancyGrid getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * @return tracker of which movable box tiles have a box of the matching color on them
+     */
+    public GoalTracker getGoals() {
+        return goals;
+    }
+
+    /**
+     * @return all of the particles on the board
+     */
+    public ParticlePool getParticles() {
+        return particles;
+    }
+
+    /**
+     * @return the flag showing if it is legal to reset the time
+     */
+    public boolean canWarpBackInTime() {
+        return canWarpBackInTime && !won;
+    }
+
+    /**
+     * @return the flag showing if the game is won
+     */
+    public boolean haveWon() {
+        return won;
+    }
+
+    /**
+     * @return the totalElapsedTime from all robot states in milliseconds
+     */
+    public long getTotalElapsedTime() {
+        long totalElapsedTime = 0;
+        for (Robot robot : robots) {
+            totalElapsedTime += robot.getLastMoveTime();
+        }
+
+        return totalElapsedTime;
+    }
+
+    /**
+     * @return an array of all movable objects on the board
+     */
+    public ArrayList<Movable> getMovables() {
+        ArrayList<Movable> movables = new ArrayList<Movable>();
+
+        movables.addAll(robots);
+        movables.addAll(movableBoxes);
+
+        return movables;
+    }
+
+    /**
+     * Length of a single tick in milliseconds
+     */
+    public static final long TICK_LENGTH = 5;
+
+    /**
+     * Time between keyframes used for seeking in milliseconds
+     */
+    private static final long KEYFRAME_INTERVAL = 500;
+
+    private static final String LOG_TAG = "Simulation";
+}
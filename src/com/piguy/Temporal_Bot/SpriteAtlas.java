@@ -0,0 +1,289 @@
+package com.piguy.Temporal_Bot;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.SparseArray;
+
+/**
+ * Every sprite used to draw a board, scaled to one tile size and packed into a single bitmap. Atlases are shared across the process by tile size and reference counted, so boards with the same tile size decode and scale the sprites only once
+ *
+ * @author Alex Vanyo
+ */
+public class SpriteAtlas {
+
+    private static final SparseArray<SpriteAtlas> atlases = new SparseArray<SpriteAtlas>();
+
+    private final int tileSize;
+    private int referenceCount;
+
+    private Bitmap bitmap;
+
+    // Where each sprite is in the atlas bitmap, by sprite index
+    private final Rect[] sourceRects;
+    private final RectF destinationRect;
+
+    private SpriteAtlas(Resources resources, int tileSize) {
+        this.tileSize = tileSize;
+
+        int iconSize = resources.getDimensionPixelSize(R.dimen.rewind_icon_size);
+        int extrudedWidth = tileSize + (int) Math.ceil((Board.ROBOT_LAYERS - 1) * Board.THREE_DIMENSIONAL_X_MULTIPLIER);
+        int extrudedHeight = tileSize + (int) Math.ceil((Board.ROBOT_LAYERS - 1) * Board.THREE_DIMENSIONAL_Y_MULTIPLIER);
+
+        // Sizes each sprite, and gives the atlas a width that keeps it roughly square
+        int[] widths = new int[SPRITE_COUNT];
+        int[] heights = new int[SPRITE_COUNT];
+        long area = 0;
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            if (i == REWIND_ICON || i == REWIND_ICON_CURRENT) {
+                widths[i] = iconSize;
+                heights[i] = iconSize;
+            } else if (i >= EXTRUDED_ROBOTS) {
+                widths[i] = extrudedWidth;
+                heights[i] = extrudedHeight;
+            } else {
+                widths[i] = tileSize;
+                heights[i] = tileSize;
+            }
+            area += (long) (widths[i] + PADDING) * (heights[i] + PADDING);
+        }
+        int atlasWidth = Math.max((int) Math.ceil(Math.sqrt(area)), Math.max(extrudedWidth, iconSize) + PADDING);
+
+        // Packs the sprites into shelves from left to right, starting a new shelf when a sprite does not fit
+        sourceRects = new Rect[SPRITE_COUNT];
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            if (x + widths[i] > atlasWidth) {
+                x = 0;
+                y += shelfHeight;
+                shelfHeight = 0;
+            }
+
+            sourceRects[i] = new Rect(x, y, x + widths[i], y + heights[i]);
+            x += widths[i] + PADDING;
+            shelfHeight = Math.max(shelfHeight, heights[i] + PADDING);
+        }
+
+        bitmap = Bitmap.createBitmap(atlasWidth, y + shelfHeight, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < RESOURCE_SPRITE_COUNT; i++) {
+            Bitmap sprite = BitmapFactory.decodeResource(resources, SPRITE_IDS[i]);
+            canvas.drawBitmap(sprite, null, sourceRects[i], null);
+            sprite.recycle();
+        }
+
+        drawExtrudedRobots(resources, canvas, R.drawable.robot, 0);
+        drawExtrudedRobots(resources, canvas, R.drawable.robot_current, 1);
+
+        destinationRect = new RectF();
+    }
+
+    /**
+     * Draws a robot sprite into the atlas facing each cardinal direction, with every layer of the fake 3D effect already stacked, so a robot that is not turning can be drawn in one call
+     *
+     * @param resources  resources to decode the sprite from
+     * @param canvas     canvas that draws into the atlas
+     * @param resourceID resource id of the robot sprite
+     * @param variant    0 for a robot, 1 for the current robot
+     */
+    private void drawExtrudedRobots(Resources resources, Canvas canvas, int resourceID, int variant) {
+        Bitmap decoded = BitmapFactory.decodeResource(resources, resourceID);
+        Bitmap robot = Bitmap.createScaledBitmap(decoded, tileSize, tileSize, false);
+        decoded.recycle();
+
+        for (int direction = 0; direction < DIRECTION_COUNT; direction++) {
+            Rect target = sourceRects[EXTRUDED_ROBOTS + variant * DIRECTION_COUNT + direction];
+
+            // Stacks the layers the same way Board draws them, from the bottom layer up
+            for (int i = 0; i < Board.ROBOT_LAYERS; i++) {
+                float left = target.left + (Board.ROBOT_LAYERS - 1 - i) * Board.THREE_DIMENSIONAL_X_MULTIPLIER;
+                float top = target.top + (Board.ROBOT_LAYERS - 1 - i) * Board.THREE_DIMENSIONAL_Y_MULTIPLIER;
+
+                canvas.save();
+                canvas.rotate(direction * 90, left + tileSize / 2f, top + tileSize / 2f);
+                canvas.drawBitmap(robot, left, top, null);
+                canvas.restore();
+            }
+        }
+
+        robot.recycle();
+    }
+
+    /**
+     * Gets the shared atlas for a tile size, creating it if no board is using one. Each call must be matched by a call to release()
+     *
+     * @param resources resources to decode the sprites from
+     * @param tileSize  pixel width and height of each tile
+     * @return the atlas for the tile size
+     */
+    public static synchronized SpriteAtlas acquire(Resources resources, int tileSize) {
+        SpriteAtlas atlas = atlases.get(tileSize);
+        if (atlas == null) {
+            atlas = new SpriteAtlas(resources, tileSize);
+            atlases.put(tileSize, atlas);
+        }
+
+        atlas.referenceCount++;
+        return atlas;
+    }
+
+    /**
+     * Gives up a reference to this atlas. The atlas bitmap is recycled once no board is using it
+     */
+    public void release() {
+        synchronized (SpriteAtlas.class) {
+            referenceCount--;
+            if (referenceCount == 0) {
+                atlases.remove(tileSize);
+                bitmap.recycle();
+                bitmap = null;
+            }
+        }
+    }
+
+    /**
+     * Draws a sprite at its own size
+     *
+     * @param canvas canvas to draw to
+     * @param sprite index of the sprite
+     * @param left   left side of the sprite on the canvas
+     * @param top    top side of the sprite on the canvas
+     * @param paint  paint to use to draw
+     */
+    public void draw(Canvas canvas, int sprite, float left, float top, Paint paint) {
+        Rect source = sourceRects[sprite];
+        destinationRect.set(left, top, left + source.width(), top + source.height());
+        canvas.drawBitmap(bitmap, source, destinationRect, paint);
+    }
+
+    /**
+     * Draws a sprite at its own size, rotated about its center
+     *
+     * @param canvas  canvas to draw to
+     * @param sprite  index of the sprite
+     * @param left    left side of the sprite on the canvas before rotating
+     * @param top     top side of the sprite on the canvas before rotating
+     * @param degrees angle to rotate in degrees
+     * @param paint   paint to use to draw
+     */
+    public void drawRotated(Canvas canvas, int sprite, float left, float top, float degrees, Paint paint) {
+        Rect source = sourceRects[sprite];
+
+        canvas.save();
+        canvas.rotate(degrees, left + source.width() / 2f, top + source.height() / 2f);
+        draw(canvas, sprite, left, top, paint);
+        canvas.restore();
+    }
+
+    /**
+     * @param sprite index of the sprite
+     * @return the pixel width of the sprite
+     */
+    public int getWidth(int sprite) {
+        return sourceRects[sprite].width();
+    }
+
+    /**
+     * @param sprite index of the sprite
+     * @return the pixel height of the sprite
+     */
+    public int getHeight(int sprite) {
+        return sourceRects[sprite].height();
+    }
+
+    /**
+     * @param current   if the robot is the one being controlled
+     * @param direction cardinal direction the robot faces, from Movable
+     * @return the index of the sprite for the robot with every layer of the fake 3D effect, to be drawn up and to the left of the robot's position by the height of the extrusion
+     */
+    public static int getExtrudedRobotSprite(boolean current, int direction) {
+        return EXTRUDED_ROBOTS + (current ? DIRECTION_COUNT : 0) + direction;
+    }
+
+    /**
+     * @param type tile type from Tile
+     * @param mask neighbour mask of the tile
+     * @return the index of the sprite for the tile. Movable box tiles are drawn on plain floor
+     */
+    public static int getTileSprite(int type, int mask) {
+        return (type == Tile.WALL ? WALL_SPRITES : FLOOR_SPRITES) + mask;
+    }
+
+    /**
+     * @param activated if a box is on the tile
+     * @param color     color id of the tile
+     * @return the index of the sprite for the movable box tile
+     */
+    public static int getBoxTileSprite(boolean activated, String color) {
+        return BOX_SPRITES + MovableBox.getColorIndex(color) * BOX_SPRITES_PER_COLOR + (activated ? 1 : 0);
+    }
+
+    /**
+     * @param color color id of the box
+     * @return the index of the sprite for the movable box
+     */
+    public static int getMovableBoxSprite(String color) {
+        return BOX_SPRITES + MovableBox.getColorIndex(color) * BOX_SPRITES_PER_COLOR + 2;
+    }
+
+    // Gap left between sprites, so that drawing one never picks up pixels from its neighbours
+    private static final int PADDING = 1;
+
+    // Tile sprites indexed by neighbour mask, where bits 0 to 3 are set for like neighbours up, right, down and left
+    private static final int[] WALL_SPRITE_IDS = {
+            R.drawable.tile_wall_alone, R.drawable.tile_wall_endpoint_up, R.drawable.tile_wall_endpoint_right, R.drawable.tile_wall_corner_up,
+            R.drawable.tile_wall_endpoint_down, R.drawable.tile_wall_middle_up_down, R.drawable.tile_wall_corner_right, R.drawable.tile_wall_t_left,
+            R.drawable.tile_wall_endpoint_left, R.drawable.tile_wall_corner_left, R.drawable.tile_wall_middle_left_right, R.drawable.tile_wall_t_down,
+            R.drawable.tile_wall_corner_down, R.drawable.tile_wall_t_right, R.drawable.tile_wall_t_up, R.drawable.tile_wall_cross
+    };
+    private static final int[] FLOOR_SPRITE_IDS = {
+            R.drawable.tile_floor_alone, R.drawable.tile_floor_endpoint_up, R.drawable.tile_floor_endpoint_right, R.drawable.tile_floor_corner_up,
+            R.drawable.tile_floor_endpoint_down, R.drawable.tile_floor_middle_up_down, R.drawable.tile_floor_corner_right, R.drawable.tile_floor_t_left,
+            R.drawable.tile_floor_endpoint_left, R.drawable.tile_floor_corner_left, R.drawable.tile_floor_middle_left_right, R.drawable.tile_floor_t_down,
+            R.drawable.tile_floor_corner_down, R.drawable.tile_floor_t_right, R.drawable.tile_floor_t_up, R.drawable.tile_floor_cross
+    };
+
+    // Box sprites for each color in MOVABLE_BOX_COLORS: the deactivated tile, the activated tile, then the box
+    private static final int[] BOX_SPRITE_IDS = {
+            R.drawable.tile_movable_box_yellow_deactivated, R.drawable.tile_movable_box_yellow_activated, R.drawable.movable_box_yellow
+    };
+    private static final int BOX_SPRITES_PER_COLOR = 3;
+
+    // Indexes of the sprites in the atlas
+    private static final int WALL_SPRITES = 0;
+    private static final int FLOOR_SPRITES = WALL_SPRITES + Tile.MASK_COUNT;
+    private static final int BOX_SPRITES = FLOOR_SPRITES + Tile.MASK_COUNT;
+    public static final int ROBOT = BOX_SPRITES + BOX_SPRITE_IDS.length;
+    public static final int ROBOT_CURRENT = ROBOT + 1;
+    public static final int PARTICLE = ROBOT + 2;
+    public static final int REWIND_ICON = ROBOT + 3;
+    public static final int REWIND_ICON_CURRENT = ROBOT + 4;
+    private static final int RESOURCE_SPRITE_COUNT = ROBOT + 5;
+
+    // Robots stacked with their fake 3D layers, for a robot and then the current robot, each facing up, right, down and left
+    private static final int DIRECTION_COUNT = 4;
+    private static final int EXTRUDED_ROBOTS = RESOURCE_SPRITE_COUNT;
+    private static final int SPRITE_COUNT = EXTRUDED_ROBOTS + 2 * DIRECTION_COUNT;
+
+    // Resource ids of the sprites that are decoded straight into the atlas, by sprite index
+    private static final int[] SPRITE_IDS = new int[RESOURCE_SPRITE_COUNT];
+
+    static {
+        System.arraycopy(WALL_SPRITE_IDS, 0, SPRITE_IDS, WALL_SPRITES, Tile.MASK_COUNT);
+        System.arraycopy(FLOOR_SPRITE_IDS, 0, SPRITE_IDS, FLOOR_SPRITES, Tile.MASK_COUNT);
+        System.arraycopy(BOX_SPRITE_IDS, 0, SPRITE_IDS, BOX_SPRITES, BOX_SPRITE_IDS.length);
+        SPRITE_IDS[ROBOT] = R.drawable.robot;
+        SPRITE_IDS[ROBOT_CURRENT] = R.drawable.robot_current;
+        SPRITE_IDS[PARTICLE] = R.drawable.particle;
+        SPRITE_IDS[REWIND_ICON] = R.drawable.rewind_icon;
+        SPRITE_IDS[REWIND_ICON_CURRENT] = R.drawable.rewind_icon_current;
+    }
+
+    private static final String LOG_TAG = "SpriteAtlas";
+}
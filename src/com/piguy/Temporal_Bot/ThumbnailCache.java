@@ -0,0 +1,209 @@
+package com.piguy.Temporal_Bot;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Two-tier cache of level thumbnails. Thumbnails are kept in memory in a least recently used cache bounded by bitmap size, and are also saved to the app's cache directory so they survive the process. Thumbnails are keyed by the level string and the thumbnail size, and do not depend on the score. Only the memory tier is used on the calling thread; reading and writing the disk tier happens on a background thread
+ *
+ * @author Alex Vanyo
+ */
+public class ThumbnailCache {
+
+    /**
+     * Receives a thumbnail looked up with get()
+     */
+    public interface LoadListener {
+        /**
+         * Called on the main thread once the lookup is done
+         *
+         * @param key    key of the thumbnail
+         * @param bitmap the thumbnail, or null if it has not been cached
+         */
+        void thumbnailLoaded(String key, Bitmap bitmap);
+    }
+
+    private static final LruCache<String, Bitmap> memoryCache = new LruCache<String, Bitmap>((int) Math.min(Runtime.getRuntime().maxMemory() / ThumbnailCache.MEMORY_CACHE_FRACTION, Integer.MAX_VALUE)) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+
+    // Reads and writes thumbnail files one at a time, so a read always sees the writes queued before it
+    private static final ExecutorService diskExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ThumbnailCache");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final File directory;
+
+    public ThumbnailCache(Context context) {
+        this.directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY_NAME);
+    }
+
+    /**
+     * Creates the key for a thumbnail
+     *
+     * @param level  level shown by the thumbnail
+     * @param width  width of the thumbnail
+     * @param height height of the thumbnail
+     * @return the key, which is also safe to use as a file name
+     */
+    public static String getKey(Level level, int width, int height) {
+        return hash(level.getLevelString()) + "_" + width + "x" + height;
+    }
+
+    /**
+     * Gets a thumbnail from memory right away, or from disk in the background if it has been evicted from memory
+     *
+     * @param key      key of the thumbnail
+     * @param listener listener given the thumbnail. Called before this returns on a memory hit, and later on the main thread otherwise
+     */
+    public void get(final String key, final LoadListener listener) {
+        Bitmap bitmap = memoryCache.get(key);
+        if (bitmap != null) {
+            listener.thumbnailLoaded(key, bitmap);
+            return;
+        }
+
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = read(key);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.thumbnailLoaded(key, bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Adds a thumbnail to memory, and queues it to be saved to disk
+     *
+     * @param key    key of the thumbnail
+     * @param bitmap thumbnail to cache
+     */
+    public void put(final String key, final Bitmap bitmap) {
+        memoryCache.put(key, bitmap);
+
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                write(key, bitmap);
+            }
+        });
+    }
+
+    /**
+     * Reads a thumbnail from disk into memory. Only called on the disk thread
+     *
+     * @param key key of the thumbnail
+     * @return the thumbnail, or null if it has not been saved
+     */
+    private Bitmap read(String key) {
+        File file = getFile(key);
+        if (!file.exists()) {
+            return null;
+        }
+
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath());
+        if (bitmap != null) {
+            memoryCache.put(key, bitmap);
+        } else {
+            file.delete();
+        }
+        return bitmap;
+    }
+
+    /**
+     * Saves a thumbnail to disk. Only called on the disk thread
+     *
+     * @param key    key of the thumbnail
+     * @param bitmap thumbnail to save
+     */
+    private void write(String key, Bitmap bitmap) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(LOG_TAG, "Unable to create " + directory);
+            return;
+        }
+
+        // Writes a temporary file first so that an interrupted write is never read back as a thumbnail
+        File file = getFile(key);
+        File temporary = new File(file.getPath() + ".tmp");
+        try {
+            OutputStream output = new FileOutputStream(temporary);
+            try {
+                bitmap.compress(Bitmap.CompressFormat.PNG, 100, output);
+            } finally {
+                output.close();
+            }
+
+            if (!temporary.renameTo(file)) {
+                throw new IOException("Unable to replace " + file);
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Unable to save thumbnail " + key, e);
+            temporary.delete();
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(directory, key + ".png");
+    }
+
+    /**
+     * @return the hex SHA-1 of the string
+     */
+    private static String hash(String string) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(string.getBytes("UTF-8"));
+
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Fraction of the heap that thumbnails may use in memory
+    private static final int MEMORY_CACHE_FRACTION = 8;
+
+    // Changing how thumbnails are drawn should change this directory, so that old thumbnails are not shown
+    private static final String DIRECTORY_NAME = "thumbnails-1";
+
+    private static final String LOG_TAG = "ThumbnailCache";
+}
@@ -0,0 +1,99 @@
+package com.piguy.Temporal_Bot;
+
+/**
+ * Min-heap of the board times at which something needs to happen, such as a robot's next move command or the end of an animation
+ *
+ * @author Alex Vanyo
+ */
+public class TickScheduler {
+
+    private long[] events;
+    private int size;
+
+    public TickScheduler() {
+        events = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Removes all scheduled events
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Schedules an event, growing the heap geometrically when it is full
+     *
+     * @param time board time at which the event happens
+     */
+    public void schedule(long time) {
+        if (size == events.length) {
+            long[] newEvents = new long[events.length * 2];
+            System.arraycopy(events, 0, newEvents, 0, size);
+            events = newEvents;
+        }
+
+        // Sift the new event up to its place in the heap
+        int index = size++;
+        while (index > 0 && events[(index - 1) / 2] > time) {
+            events[index] = events[(index - 1) / 2];
+            index = (index - 1) / 2;
+        }
+        events[index] = time;
+    }
+
+    /**
+     * @return time of the earliest scheduled event, or NO_EVENT if nothing is scheduled
+     */
+    public long nextEventTime() {
+        return size == 0 ? NO_EVENT : events[0];
+    }
+
+    /**
+     * Removes every event that is due at the given time. An event is due on the first tick after its time, as anything scheduled at the current time is scheduled after that tick has been handled
+     *
+     * @param time current time on the board
+     * @return if any event was due
+     */
+    public boolean pollDue(long time) {
+        boolean due = false;
+
+        while (size > 0 && events[0] < time) {
+            removeFirst();
+            due = true;
+        }
+
+        return due;
+    }
+
+    /**
+     * Removes the earliest event by moving the last event to the root and sifting it down
+     */
+    private void removeFirst() {
+        long last = events[--size];
+
+        int index = 0;
+        int child;
+        while ((child = index * 2 + 1) < size) {
+            if (child + 1 < size && events[child + 1] < events[child]) {
+                child++;
+            }
+            if (events[child] >= last) {
+                break;
+            }
+            events[index] = events[child];
+            index = child;
+        }
+        events[index] = last;
+    }
+
+    /**
+     * Returned when there is no scheduled event
+     */
+    public static final long NO_EVENT = Long.MAX_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final String LOG_TAG = "TickScheduler";
+}
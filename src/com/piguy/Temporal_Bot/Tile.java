@@ -1,59 +1,29 @@
 package com.piguy.Temporal_Bot;
 
 /**
- * Represents each tile on the board
+ * Codes for the type of each tile on the board and the bits of its neighbour mask, as stored in a TileGrid
  *
  * @author Alex Vanyo
  */
 public class Tile {
 
-    private String id;
-    private String displayID;
+    // Tile type codes
+    public static final byte FLOOR = 0;
+    public static final byte WALL = 1;
+    public static final byte MOVABLE_BOX = 2;
 
-    public Tile(String id) {
-        this.id = id;
-        this.displayID = id;
-    }
+    public static final int TYPE_COUNT = 3;
 
-    /**
-     * @param displayID custom display id to be set for each tile
-     */
-    public void setDisplay(String displayID) {
-        this.displayID = displayID;
-    }
-
-    /**
-     * @return id for the category of the tile
-     */
-    public String getID() {
-        return id;
-    }
+    // Bits of the neighbour mask, each set when the neighbour in that direction has the same type
+    public static final int SAME_UP = 1;
+    public static final int SAME_RIGHT = 1 << 1;
+    public static final int SAME_DOWN = 1 << 2;
+    public static final int SAME_LEFT = 1 << 3;
 
     /**
-     * @return display id for the tile
+     * Number of possible neighbour masks, and so the number of sprites for each tile type
      */
-    public String getDisplayID() {
-        return displayID;
-    }
-
-    // Constant tags for referencing tiles and tile types
-    public static final String TILE_WALL = "TILE_WALL_";
-    public static final String TILE_FLOOR = "TILE_FLOOR_";
-    public static final String TILE_MOVABLE_BOX = "TILE_MOVABLE_BOX_";
-
-    public static final String ALONE_LABEL = "ALONE_LABEL";
-    public static final String ENDPOINT_LABEL = "ENDPOINT_LABEL_";
-    public static final String MIDDLE_LABEL = "MIDDLE_LABEL_";
-    public static final String CORNER_LABEL = "CORNER_LABEL_";
-    public static final String T_LABEL = "T_LABEL_";
-    public static final String CROSS_LABEL = "CROSS_LABEL";
-
-    public static final String UP = "UP";
-    public static final String RIGHT = "RIGHT";
-    public static final String DOWN = "DOWN";
-    public static final String LEFT = "LEFT";
-    public static final String UP_DOWN = "UP_DOWN";
-    public static final String LEFT_RIGHT = "LEFT_RIGHT";
+    public static final int MASK_COUNT = 16;
 
     private static final String LOG_TAG = "Tile";
 }
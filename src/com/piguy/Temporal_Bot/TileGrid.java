@@ -0,0 +1,104 @@
+package com.piguy.Temporal_Bot;
+
+/**
+ * Flat grid of tile type codes and neighbour masks for a level. Cells are stored row by row, so a cell is found with an integer index instead of through a tile object
+ *
+ * @author Alex Vanyo
+ */
+public class TileGrid {
+
+    private int width;
+    private int height;
+    private byte[] types;
+    private byte[] neighbourMasks;
+
+    public TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        types = new byte[width * height];
+        neighbourMasks = new byte[width * height];
+    }
+
+    /**
+     * Gives each tile a mask of which of its neighbours have the same type, which picks the sprite it is drawn with. Movable box tiles are always drawn alone
+     */
+    public void autotile() {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = y * width + x;
+                byte type = types[index];
+
+                int mask = 0;
+                if (type != Tile.MOVABLE_BOX) {
+                    if (y > 0 && types[index - width] == type) {
+                        mask |= Tile.SAME_UP;
+                    }
+                    if (x < width - 1 && types[index + 1] == type) {
+                        mask |= Tile.SAME_RIGHT;
+                    }
+                    if (y < height - 1 && types[index + width] == type) {
+                        mask |= Tile.SAME_DOWN;
+                    }
+                    if (x > 0 && types[index - 1] == type) {
+                        mask |= Tile.SAME_LEFT;
+                    }
+                }
+
+                neighbourMasks[index] = (byte) mask;
+            }
+        }
+    }
+
+    /**
+     * @param x    x position of the cell
+     * @param y    y position of the cell
+     * @param type tile type code for the cell
+     */
+    public void setType(int x, int y, byte type) {
+        types[y * width + x] = type;
+    }
+
+    /**
+     * @param x x position of the cell
+     * @param y y position of the cell
+     * @return tile type code of the cell
+     */
+    public byte getType(int x, int y) {
+        return types[y * width + x];
+    }
+
+    /**
+     * @param x x position of the cell
+     * @param y y position of the cell
+     * @return mask of the neighbours of the cell with the same type, made of the Tile.SAME_* bits
+     */
+    public int getNeighbourMask(int x, int y) {
+        return neighbourMasks[y * width + x];
+    }
+
+    /**
+     * @param x x position of the cell
+     * @param y y position of the cell
+     * @return if the cell is a wall
+     */
+    public boolean isWall(int x, int y) {
+        return types[y * width + x] == Tile.WALL;
+    }
+
+    /**
+     * @return number of columns in the grid
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return number of rows in the grid
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    private static final String LOG_TAG = "TileGrid";
+}
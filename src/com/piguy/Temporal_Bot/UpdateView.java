@@ -3,35 +3,61 @@ package com.piguy.Temporal_Bot;
 import android.content.Context;
 import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.Shader;
 import android.graphics.drawable.BitmapDrawable;
 import android.util.AttributeSet;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
-
-import java.util.concurrent.TimeUnit;
+import android.view.WindowManager;
 
 /**
  * Custom view for updating a surface view
  *
  * @author Alex Vanyo
  */
-public class UpdateView extends SurfaceView implements SurfaceHolder.Callback, Runnable {
+public class UpdateView extends SurfaceView implements SurfaceHolder.Callback, GameLoop.Frame {
 
     private Paint paint;
 
-    private Thread updateThread;
+    private GameLoop gameLoop;
     private BitmapDrawable bitmapBackground;
 
+    // Part of the surface redrawn each frame
+    private final Rect dirty = new Rect();
+
+    // Debug overlay of the latency histograms, whose text is only rebuilt every so often so that showing it barely adds to the frame time
+    private volatile boolean showLatencyStats;
+    private Paint overlayPaint;
+    private Paint overlayBackgroundPaint;
+    private String[] overlayLines;
+    private float overlayTextSize;
+    private final Rect overlayBounds = new Rect();
+    private long overlayUpdateTime;
+
     public UpdateView(Context context, AttributeSet attrs) {
         super(context, attrs);
 
         paint = new Paint();
 
+        overlayPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        overlayPaint.setColor(Color.WHITE);
+        overlayBackgroundPaint = new Paint();
+        overlayBackgroundPaint.setColor(OVERLAY_BACKGROUND_COLOR);
+        overlayLines = new String[LatencyStats.getHistograms().length];
+
         getHolder().addCallback(this);
     }
 
+    /**
+     * @param showLatencyStats if the latency histograms should be drawn over the view
+     */
+    public void setShowLatencyStats(boolean showLatencyStats) {
+        this.showLatencyStats = showLatencyStats;
+    }
+
     /**
      * Paint the background onto the canvas
      *
@@ -53,11 +79,32 @@ public class UpdateView extends SurfaceView implements SurfaceHolder.Callback, R
         }
     }
 
+    /**
+     * Updates whatever the view shows to the time of the frame. Does nothing by default
+     *
+     * @param frameTimeNanos time of the frame, in the System.nanoTime() time base
+     */
+    public void update(long frameTimeNanos) {
+    }
+
+    /**
+     * Finds the part of the surface that needs to be redrawn. By default the whole surface is redrawn every frame
+     *
+     * @param dirty set to the rectangle of the surface that needs to be redrawn
+     * @return if anything needs to be redrawn
+     */
+    public boolean prepareFrame(Rect dirty) {
+        dirty.set(0, 0, getWidth(), getHeight());
+        return true;
+    }
+
     @Override
     public void surfaceCreated(SurfaceHolder holder) {
         if (!isInEditMode()) {
-            updateThread = new Thread(this);
-            updateThread.start();
+            float refreshRate = ((WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay().getRefreshRate();
+
+            gameLoop = new GameLoop(this, refreshRate);
+            gameLoop.start();
         }
     }
 
@@ -71,53 +118,120 @@ public class UpdateView extends SurfaceView implements SurfaceHolder.Callback, R
     @Override
     public void surfaceDestroyed(SurfaceHolder holder) {
         if (!isInEditMode()) {
-            updateThread.interrupt();
+            // Waits for the game loop to stop, so it never draws to the surface after it is gone
+            gameLoop.stop();
         }
     }
 
+    /**
+     * Updates and draws one frame on the game loop thread
+     *
+     * @param frameTimeNanos time of the frame, in the System.nanoTime() time base
+     */
     @Override
-    public void run() {
-        Canvas canvas;
-        long beginTimeMillis, timeTakenMillis, timeLeftMillis;
-        while (!Thread.currentThread().isInterrupted()) {
+    public void doGameFrame(long frameTimeNanos) {
+        long frameStart = System.nanoTime();
 
-            canvas = null;
+        update(frameTimeNanos);
 
-            // Get the time before updates/draw
-            beginTimeMillis = System.currentTimeMillis();
+        Canvas canvas = null;
 
-            // Lock onto the holder and draw onto its canvas
-            try {
-                synchronized (getHolder()) {
-                    canvas = getHolder().lockCanvas();
-                    if (canvas != null) {
-                        paint(canvas);
+        // Lock only the part of the holder that changed and draw onto its canvas, skipping frames where nothing changed
+        try {
+            synchronized (getHolder()) {
+                boolean redraw = prepareFrame(dirty);
+
+                if (showLatencyStats && updateOverlay(frameStart)) {
+                    if (redraw) {
+                        dirty.union(overlayBounds);
+                    } else {
+                        dirty.set(overlayBounds);
+                        redraw = true;
                     }
                 }
-            } finally {
 
-                if (canvas != null) {
-                    getHolder().unlockCanvasAndPost(canvas);
+                if (redraw) {
+                    canvas = getHolder().lockCanvas(dirty);
+                    if (canvas != null) {
+                        paint(canvas);
+
+                        if (showLatencyStats) {
+                            paintOverlay(canvas);
+                        }
+                    }
                 }
             }
+        } finally {
 
-            // Calculate how long the system should wait
-            timeTakenMillis = System.currentTimeMillis() - beginTimeMillis;
-            timeLeftMillis = (1000 / TARGET_FPS) - timeTakenMillis;
+            if (canvas != null) {
+                getHolder().unlockCanvasAndPost(canvas);
 
-            if (timeLeftMillis < 5) {
-                timeLeftMillis = 5;
+                // Only frames that were drawn are counted, so idle frames do not hide slow ones
+                LatencyStats.FRAME.record(System.nanoTime() - frameStart);
             }
+        }
+    }
 
-            try {
-                TimeUnit.MILLISECONDS.sleep(timeLeftMillis);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-            }
+    /**
+     * Rebuilds the text of the latency overlay if it has not been rebuilt recently
+     *
+     * @param now current time, in the System.nanoTime() time base
+     * @return if the text changed and the overlay needs to be redrawn
+     */
+    private boolean updateOverlay(long now) {
+        if (overlayUpdateTime != 0 && now - overlayUpdateTime < OVERLAY_UPDATE_NANOS) {
+            return false;
+        }
+        overlayUpdateTime = now;
+
+        overlayTextSize = OVERLAY_TEXT_SIZE * getResources().getDisplayMetrics().density;
+        overlayPaint.setTextSize(overlayTextSize);
+
+        LatencyHistogram[] histograms = LatencyStats.getHistograms();
+        float width = 0;
+        for (int i = 0; i < histograms.length; i++) {
+            overlayLines[i] = LatencyStats.getSummary(histograms[i]);
+            width = Math.max(width, overlayPaint.measureText(overlayLines[i]));
+        }
+
+        // Keeps the overlay in the bottom left corner, and keeps its width from shrinking so old text is always covered
+        int padding = (int) overlayTextSize / 2;
+        int right = Math.max(overlayBounds.right, (int) Math.ceil(width) + padding * 2);
+        int height = (int) Math.ceil(overlayTextSize * histograms.length) + padding * 2;
+        overlayBounds.set(0, getHeight() - height, right, getHeight());
+
+        return true;
+    }
+
+    /**
+     * Draws the latency overlay onto the canvas
+     *
+     * @param canvas canvas to draw onto
+     */
+    private void paintOverlay(Canvas canvas) {
+        if (overlayLines[0] == null) {
+            return;
+        }
+
+        canvas.drawRect(overlayBounds, overlayBackgroundPaint);
+
+        int padding = (int) overlayTextSize / 2;
+        for (int i = 0; i < overlayLines.length; i++) {
+            canvas.drawText(overlayLines[i], overlayBounds.left + padding, overlayBounds.top + padding + overlayTextSize * (i + 1), overlayPaint);
         }
     }
 
-    private static final int TARGET_FPS = 30;
+    /**
+     * Time between rebuilds of the latency overlay text in nanoseconds
+     */
+    private static final long OVERLAY_UPDATE_NANOS = 1000000000L;
+
+    /**
+     * Text size of the latency overlay in density independent pixels
+     */
+    private static final float OVERLAY_TEXT_SIZE = 12;
+
+    private static final int OVERLAY_BACKGROUND_COLOR = 0xA0000000;
 
     private static final String LOG_TAG = "UpdateView";
 }
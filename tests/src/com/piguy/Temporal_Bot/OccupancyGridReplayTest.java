@@ -0,0 +1,226 @@
+package com.piguy.Temporal_Bot;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Records command logs from runs through the simulation, then replays each log tick by tick and checks after every tick that the occupancy grid agrees with a linear scan over every movable, which is how collisions were found before the grid. The runs go back in time and scrub the timeline, so the grid is checked through command replay, resets and keyframe restores. Only needs the simulation classes, so it runs on a plain JVM:
+ * <pre>
+ * javac -d out src/com/piguy/Temporal_Bot/{Simulation,CompiledLevel,KeyframeLog,TickScheduler,ParticlePool,GoalTracker,OccupancyGrid,Movable,Robot,MovableBox,MovableBoxTile,TileGrid,Tile}.java tests/src/com/piguy/Temporal_Bot/OccupancyGridReplayTest.java
+ * java -cp out com.piguy.Temporal_Bot.OccupancyGridReplayTest
+ * </pre>
+ *
+ * @author Alex Vanyo
+ */
+public class OccupancyGridReplayTest {
+
+    public static void main(String[] args) {
+        ArrayList<String> levels = new ArrayList<String>();
+        for (String level : LEVELS) {
+            levels.add(level);
+        }
+
+        Random random = new Random(0);
+        for (int i = 0; i < GENERATED_LEVEL_COUNT; i++) {
+            levels.add(generateLevelString(random));
+        }
+
+        long tickCount = 0;
+        for (int l = 0; l < levels.size(); l++) {
+            for (int seed = 0; seed < RUNS_PER_LEVEL; seed++) {
+                Simulation recorded = new Simulation();
+                recorded.setLevel(levels.get(l));
+                long[] log = record(recorded, new Random(seed));
+
+                tickCount += replay(levels.get(l), log, recorded, "level " + l + ", run " + seed);
+            }
+        }
+
+        System.out.println("Replayed " + tickCount + " ticks on " + levels.size() + " levels, the occupancy grid matched the linear scan after every tick");
+    }
+
+    /**
+     * Plays a level the way a player would, moving the current robot, going back in time and scrubbing the timeline at random times
+     *
+     * @return the command log, as the time, command and seek target of each entry
+     */
+    private static long[] record(Simulation simulation, Random random) {
+        long[] log = new long[ACTIONS_PER_RUN * LOG_ENTRY_SIZE];
+
+        int entries = 0;
+        while (entries < ACTIONS_PER_RUN && !simulation.haveWon()) {
+            simulation.step(random.nextInt(MAX_TICKS_BETWEEN_ACTIONS));
+
+            // Seeking and going back in time both change the time, so the time before the entry is logged
+            long time = simulation.getElapsedTime();
+            int command;
+            long target = 0;
+            if (random.nextInt(SEEK_CHANCE) == 0) {
+                command = SEEK;
+                target = (long) (random.nextDouble() * simulation.getFurthestTime());
+                simulation.seek(target);
+            } else {
+                command = random.nextInt(BACK_IN_TIME_CHANCE) == 0 && simulation.canWarpBackInTime() ? Movable.MOVE_BACK_IN_TIME : random.nextInt(4);
+                simulation.applyCommand(command);
+            }
+
+            log[entries * LOG_ENTRY_SIZE] = time;
+            log[entries * LOG_ENTRY_SIZE + 1] = command;
+            log[entries * LOG_ENTRY_SIZE + 2] = target;
+            entries++;
+        }
+
+        // Lets the last commands and every robot that went back in time play out
+        simulation.step(FINAL_TICKS);
+
+        long[] trimmed = new long[entries * LOG_ENTRY_SIZE];
+        System.arraycopy(log, 0, trimmed, 0, trimmed.length);
+        return trimmed;
+    }
+
+    /**
+     * Replays a command log on a new simulation one tick at a time, checking the occupancy grid after every tick and every command
+     *
+     * @return number of ticks replayed
+     */
+    private static long replay(String levelString, long[] log, Simulation recorded, String description) {
+        Simulation simulation = new Simulation();
+        simulation.setLevel(levelString);
+        check(simulation, description + ", start");
+
+        long tickCount = 0;
+        for (int i = 0; i < log.length / LOG_ENTRY_SIZE; i++) {
+            long time = log[i * LOG_ENTRY_SIZE];
+            int command = (int) log[i * LOG_ENTRY_SIZE + 1];
+
+            while (simulation.getElapsedTime() < time) {
+                simulation.tick();
+                tickCount++;
+                check(simulation, description + ", tick at " + simulation.getElapsedTime());
+            }
+
+            if (command == SEEK) {
+                simulation.seek(log[i * LOG_ENTRY_SIZE + 2]);
+            } else {
+                simulation.applyCommand(command);
+            }
+            check(simulation, description + ", entry " + i);
+        }
+
+        for (int i = 0; i < FINAL_TICKS; i++) {
+            simulation.tick();
+            tickCount++;
+            check(simulation, description + ", tick at " + simulation.getElapsedTime());
+        }
+
+        // The replay has to end where the recorded run did, or it did not exercise the same states
+        ArrayList<Movable> expected = recorded.getMovables();
+        ArrayList<Movable> actual = simulation.getMovables();
+        for (int m = 0; m < expected.size(); m++) {
+            if (expected.get(m).getX() != actual.get(m).getX() || expected.get(m).getY() != actual.get(m).getY() || expected.get(m).isVisible() != actual.get(m).isVisible()) {
+                throw new IllegalStateException(description + ": movable " + m + " ended at " + actual.get(m).getX() + "," + actual.get(m).getY()
+                        + " in the replay but at " + expected.get(m).getX() + "," + expected.get(m).getY() + " in the recorded run");
+            }
+        }
+
+        return tickCount;
+    }
+
+    /**
+     * Checks every cell of the occupancy grid against the reference linear scan
+     */
+    private static void check(Simulation simulation, String description) {
+        OccupancyGrid grid = simulation.getOccupancy();
+        ArrayList<Movable> movables = simulation.getMovables();
+
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                Movable expected = findByLinearScan(movables, x, y);
+                if (grid.get(x, y) != expected) {
+                    throw new IllegalStateException(description + ": the occupancy grid holds " + describe(movables, grid.get(x, y)) + " at " + x + "," + y
+                            + " but the linear scan finds " + describe(movables, expected));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reference collision check that finds the movable on a cell by scanning every movable, as Movable.move did before the occupancy grid
+     */
+    private static Movable findByLinearScan(ArrayList<Movable> movables, int x, int y) {
+        for (Movable movable : movables) {
+            if (movable.isVisible() && movable.getX() == x && movable.getY() == y) {
+                return movable;
+            }
+        }
+        return null;
+    }
+
+    private static String describe(ArrayList<Movable> movables, Movable movable) {
+        return movable == null ? "nothing" : "movable " + movables.indexOf(movable);
+    }
+
+    /**
+     * @return a random walled level between 6x6 and 15x15 tiles with a few robots and many boxes, so robots push chains of boxes into each other
+     */
+    private static String generateLevelString(Random random) {
+        int width = 6 + random.nextInt(10);
+        int height = 6 + random.nextInt(10);
+
+        char[][] cells = new char[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean border = x == 0 || y == 0 || x == width - 1 || y == height - 1;
+                cells[y][x] = border || random.nextInt(8) == 0 ? '1' : '0';
+            }
+        }
+
+        placeRandomly(cells, random, "^>v<", 1 + random.nextInt(3));
+        placeRandomly(cells, random, "a", 2 + random.nextInt(width * height / 8));
+        placeRandomly(cells, random, "A", 1 + random.nextInt(3));
+
+        StringBuilder level = new StringBuilder((width + 1) * height);
+        for (int y = 0; y < height; y++) {
+            level.append(cells[y]).append('_');
+        }
+        return level.toString();
+    }
+
+    /**
+     * Places codes picked from the given ones on random floor cells
+     */
+    private static void placeRandomly(char[][] cells, Random random, String codes, int count) {
+        for (int placed = 0; placed < count; ) {
+            int y = 1 + random.nextInt(cells.length - 2);
+            int x = 1 + random.nextInt(cells[0].length - 2);
+            if (cells[y][x] == '0') {
+                cells[y][x] = codes.charAt(random.nextInt(codes.length()));
+                placed++;
+            }
+        }
+    }
+
+    /**
+     * Hand made levels with robots and boxes packed together
+     */
+    private static final String[] LEVELS = {
+            "1111111111_1000000001_1000000001_100v000001_1000000001_100a000001_1000000001_1000000001_1000000001_100000A001_1111111111_",
+            "1111111111_1000110001_10>0000a01_1000110001_1111111011_1000110001_1000000001_1000110001_1000000A01_1111111111_",
+            "11111111_1>aaa001_10a0a001_1<aaa001_10000v01_1A0000^1_11111111_",
+            "111111111_1v00a0001_10aa0a001_100a0a001_1a0a0a0^1_10000A001_111111111_",
+    };
+
+    /**
+     * Command stored in the log for a seek, whose target time is stored alongside it
+     */
+    private static final int SEEK = -1;
+    private static final int LOG_ENTRY_SIZE = 3;
+
+    private static final int GENERATED_LEVEL_COUNT = 60;
+    private static final int RUNS_PER_LEVEL = 10;
+    private static final int ACTIONS_PER_RUN = 120;
+    private static final int MAX_TICKS_BETWEEN_ACTIONS = 80;
+    private static final int FINAL_TICKS = 2000;
+    private static final int SEEK_CHANCE = 12;
+    private static final int BACK_IN_TIME_CHANCE = 10;
+}
@@ -0,0 +1,253 @@
+package com.piguy.Temporal_Bot.tools;
+
+import com.piguy.Temporal_Bot.LevelPack;
+import com.piguy.Temporal_Bot.LevelPackWriter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares loading levels from a binary level pack with the old path of copying the SQLite levels database and querying it. Generates a database and a pack with the same levels, then times loading one level and loading every level, and measures the heap used by the loaded levels.
+ * <p/>
+ * Needs an SQLite JDBC driver, such as org.xerial:sqlite-jdbc, on the class path:
+ * <pre>
+ * java -cp sqlite-jdbc.jar:out com.piguy.Temporal_Bot.tools.LevelPackBenchmark 10000
+ * </pre>
+ *
+ * @author Alex Vanyo
+ */
+public class LevelPackBenchmark {
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int levelCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LEVEL_COUNT;
+
+        File database = File.createTempFile("levels", ".db");
+        File databaseCopy = File.createTempFile("levels-copy", ".db");
+        File pack = File.createTempFile("levels", ".pack");
+        database.deleteOnExit();
+        databaseCopy.deleteOnExit();
+        pack.deleteOnExit();
+
+        generate(levelCount, database, pack);
+        System.out.println(levelCount + " levels: database " + database.length() + " bytes, pack " + pack.length() + " bytes");
+
+        Random random = new Random(1);
+
+        // Loading a single level
+        long databaseTime = 0;
+        long packTime = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            int id = 1 + random.nextInt(levelCount);
+
+            long start = System.nanoTime();
+            String fromDatabase = loadFromDatabase(database, databaseCopy, id);
+            databaseTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            String fromPack = loadFromPack(pack, id);
+            packTime += System.nanoTime() - start;
+
+            if (!fromDatabase.equals(fromPack)) {
+                throw new IllegalStateException("Level " + id + " differs between the database and the pack");
+            }
+        }
+        System.out.println("Single level: database " + (databaseTime / ITERATIONS / 1000) + " us, pack " + (packTime / ITERATIONS / 1000) + " us");
+
+        // Loading every level
+        long usedBefore = usedMemory();
+        long start = System.nanoTime();
+        ArrayList<String> databaseLevels = loadAllFromDatabase(database, databaseCopy);
+        databaseTime = System.nanoTime() - start;
+        long databaseMemory = usedMemory() - usedBefore;
+
+        usedBefore = usedMemory();
+        start = System.nanoTime();
+        ArrayList<String> packLevels = loadAllFromPack(pack);
+        packTime = System.nanoTime() - start;
+        long packMemory = usedMemory() - usedBefore;
+
+        if (!databaseLevels.equals(packLevels)) {
+            throw new IllegalStateException("Level lists differ between the database and the pack");
+        }
+        System.out.println("All levels: database " + (databaseTime / 1000000) + " ms, pack " + (packTime / 1000000) + " ms");
+        System.out.println("Heap used by all levels: database " + (databaseMemory / 1024) + " KB, pack " + (packMemory / 1024) + " KB");
+    }
+
+    /**
+     * Writes the same randomly generated levels to a levels database and a level pack
+     */
+    private static void generate(int levelCount, File database, File pack) throws IOException, SQLException {
+        Random random = new Random(0);
+        LevelPackWriter writer = new LevelPackWriter();
+
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.getPath());
+        try {
+            Statement statement = connection.createStatement();
+            statement.execute("CREATE TABLE " + LevelPackConverter.TABLE_LEVELS + "(" + LevelPackConverter.KEY_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " + LevelPackConverter.KEY_LEVEL_STRING + " TEXT, " + LevelPackConverter.KEY_NAME + " TEXT, " + LevelPackConverter.KEY_TARGET_TIME + " INTEGER, " + LevelPackConverter.KEY_TARGET_ROBOTS + " INTEGER, " + LevelPackConverter.KEY_INSTRUCTION + " TEXT);");
+            statement.close();
+
+            connection.setAutoCommit(false);
+            PreparedStatement insert = connection.prepareStatement("INSERT INTO " + LevelPackConverter.TABLE_LEVELS + " VALUES(?, ?, ?, ?, ?, ?);");
+            for (int id = 1; id <= levelCount; id++) {
+                String levelString = generateLevelString(random);
+                String name = "Level " + id;
+                long targetTime = 1000 * (10 + random.nextInt(200));
+                int targetRobots = 1 + random.nextInt(4);
+                String instruction = random.nextInt(4) == 0 ? "Instruction for level " + id : null;
+
+                insert.setInt(1, id);
+                insert.setString(2, levelString);
+                insert.setString(3, name);
+                insert.setLong(4, targetTime);
+                insert.setInt(5, targetRobots);
+                insert.setString(6, instruction);
+                insert.executeUpdate();
+
+                writer.addLevel(id, levelString, name, targetTime, targetRobots, instruction);
+            }
+            insert.close();
+            connection.commit();
+        } finally {
+            connection.close();
+        }
+
+        OutputStream out = new FileOutputStream(pack);
+        try {
+            writer.write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return a random walled level between 6x6 and 20x20 tiles with one robot, one box and one goal
+     */
+    private static String generateLevelString(Random random) {
+        int width = 6 + random.nextInt(15);
+        int height = 6 + random.nextInt(15);
+
+        StringBuilder level = new StringBuilder((width + 1) * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean border = x == 0 || y == 0 || x == width - 1 || y == height - 1;
+                level.append(border || random.nextInt(6) == 0 ? '1' : '0');
+            }
+            level.append('_');
+        }
+
+        level.setCharAt(1 * (width + 1) + 1, 'v');
+        level.setCharAt(2 * (width + 1) + 2, 'a');
+        level.setCharAt((height - 2) * (width + 1) + width - 2, 'A');
+
+        return level.toString();
+    }
+
+    /**
+     * Loads one level the way the app used to: copies the whole database with a 1 KB buffer, then queries it
+     */
+    private static String loadFromDatabase(File database, File databaseCopy, int id) throws IOException, SQLException {
+        copy(database, databaseCopy);
+
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseCopy.getPath());
+        try {
+            Statement statement = connection.createStatement();
+            ResultSet level = statement.executeQuery("SELECT * FROM " + LevelPackConverter.TABLE_LEVELS + " WHERE " + LevelPackConverter.KEY_ID + " = '" + id + "';");
+            level.next();
+            String levelString = level.getString(2);
+            level.close();
+            statement.close();
+            return levelString;
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Loads every level the way the app used to: copies the whole database with a 1 KB buffer, then reads every row
+     */
+    private static ArrayList<String> loadAllFromDatabase(File database, File databaseCopy) throws IOException, SQLException {
+        copy(database, databaseCopy);
+
+        ArrayList<String> levels = new ArrayList<String>();
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseCopy.getPath());
+        try {
+            Statement statement = connection.createStatement();
+            ResultSet level = statement.executeQuery("SELECT * FROM " + LevelPackConverter.TABLE_LEVELS + ";");
+            while (level.next()) {
+                levels.add(level.getString(2));
+            }
+            level.close();
+            statement.close();
+        } finally {
+            connection.close();
+        }
+        return levels;
+    }
+
+    /**
+     * Loads one level by memory-mapping the pack and decoding only that level
+     */
+    private static String loadFromPack(File pack, int id) throws IOException {
+        LevelPack levelPack = mapPack(pack);
+        return levelPack.getLevelString(levelPack.findLevel(id));
+    }
+
+    /**
+     * Loads every level by memory-mapping the pack and decoding each level
+     */
+    private static ArrayList<String> loadAllFromPack(File pack) throws IOException {
+        LevelPack levelPack = mapPack(pack);
+
+        ArrayList<String> levels = new ArrayList<String>(levelPack.getLevelCount());
+        for (int i = 0; i < levelPack.getLevelCount(); i++) {
+            levels.add(levelPack.getLevelString(i));
+        }
+        return levels;
+    }
+
+    private static LevelPack mapPack(File pack) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(pack, "r");
+        try {
+            return new LevelPack(file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()));
+        } finally {
+            file.close();
+        }
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        InputStream input = new FileInputStream(from);
+        OutputStream output = new FileOutputStream(to);
+
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = input.read(buffer)) > 0) {
+            output.write(buffer, 0, length);
+        }
+
+        output.close();
+        input.close();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final int DEFAULT_LEVEL_COUNT = 10000;
+    private static final int ITERATIONS = 50;
+}
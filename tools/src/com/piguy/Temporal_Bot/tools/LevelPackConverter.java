@@ -0,0 +1,83 @@
+package com.piguy.Temporal_Bot.tools;
+
+import com.piguy.Temporal_Bot.LevelPackWriter;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Converts a levels database, in the layout of the old packaged SQLite asset, into a binary level pack.
+ * <p/>
+ * Needs an SQLite JDBC driver, such as org.xerial:sqlite-jdbc, on the class path:
+ * <pre>
+ * java -cp sqlite-jdbc.jar:out com.piguy.Temporal_Bot.tools.LevelPackConverter tools/levels.db assets/levels.pack
+ * </pre>
+ *
+ * @author Alex Vanyo
+ */
+public class LevelPackConverter {
+
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length != 2) {
+            System.err.println("Usage: LevelPackConverter <levels database> <level pack>");
+            System.exit(1);
+        }
+
+        LevelPackWriter writer = new LevelPackWriter();
+        int levelCount = readLevels(args[0], writer);
+
+        OutputStream out = new FileOutputStream(args[1]);
+        try {
+            writer.write(out);
+        } finally {
+            out.close();
+        }
+
+        System.out.println("Wrote " + levelCount + " levels to " + args[1]);
+    }
+
+    /**
+     * Adds every level in a levels database to the writer
+     *
+     * @param path   path of the levels database
+     * @param writer writer to add the levels to
+     * @return number of levels added
+     * @throws IOException  if a level cannot be added to the pack
+     * @throws SQLException if the database cannot be read
+     */
+    public static int readLevels(String path, LevelPackWriter writer) throws IOException, SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+        try {
+            Statement statement = connection.createStatement();
+            ResultSet levels = statement.executeQuery("SELECT " + KEY_ID + ", " + KEY_LEVEL_STRING + ", " + KEY_NAME + ", " + KEY_TARGET_TIME + ", " + KEY_TARGET_ROBOTS + ", " + KEY_INSTRUCTION + " FROM " + TABLE_LEVELS + ";");
+
+            int levelCount = 0;
+            while (levels.next()) {
+                writer.addLevel(levels.getInt(1), levels.getString(2), levels.getString(3), levels.getLong(4), levels.getInt(5), levels.getString(6));
+                levelCount++;
+            }
+
+            levels.close();
+            statement.close();
+
+            return levelCount;
+        } finally {
+            connection.close();
+        }
+    }
+
+    // Layout of the levels database
+    static final String TABLE_LEVELS = "levels";
+    static final String KEY_ID = "_id";
+    static final String KEY_LEVEL_STRING = "level_string";
+    static final String KEY_NAME = "name";
+    static final String KEY_TARGET_TIME = "target_time";
+    static final String KEY_TARGET_ROBOTS = "target_robots";
+    static final String KEY_INSTRUCTION = "instruction";
+}